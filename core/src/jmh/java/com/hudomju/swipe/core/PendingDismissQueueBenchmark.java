@@ -0,0 +1,42 @@
+package com.hudomju.swipe.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures filling a {@link PendingDismissQueue} with a burst of swiped rows, looking them up,
+ * shifting them after other removals and committing them as a single batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PendingDismissQueueBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int pendingCount;
+
+    private final PendingDismissQueue<PendingDismiss> mQueue = new PendingDismissQueue<>();
+    private final int[] mRemoved = {9, 5, 1};
+
+    @Benchmark
+    public int burst() {
+        mQueue.setMaxSize(pendingCount);
+        for (int i = 0; i < pendingCount; i++) {
+            int position = (i * 7) % (pendingCount * 2);
+            if (mQueue.findByPosition(position) == null) {
+                mQueue.add(new PendingDismiss(position, position));
+            }
+        }
+        mQueue.onItemsRemoved(mRemoved);
+        List<PendingDismiss> batch = mQueue.drain();
+        return batch.size();
+    }
+}
@@ -0,0 +1,98 @@
+package com.hudomju.swipe.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures remapping positions of a large data set while many of its items have been removed, with
+ * a {@link RemovedPositionIndex} against shifting every position by a linear scan of the removals.
+ * Both variants record the same batch of removals, answer the same lookups in both directions and
+ * then forget the removals, like {@link PendingDismissQueue} does between two reads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RemovedPositionIndexBenchmark {
+
+    private static final int LOOKUPS = 100;
+
+    @Param({"100000", "1000000"})
+    public int itemCount;
+
+    @Param({"10", "1000", "10000"})
+    public int removedCount;
+
+    private final RemovedPositionIndex mIndex = new RemovedPositionIndex();
+    private int[] mReverseSortedRemoved;
+    private int[] mLookups;
+    // The removed positions recorded by the linear scan, in descending order
+    private int[] mLinearRemoved;
+    private int mLinearRemovedCount;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        mReverseSortedRemoved = new int[removedCount];
+        int position = itemCount;
+        for (int i = 0; i < removedCount; i++) {
+            position -= 1 + random.nextInt(itemCount / removedCount);
+            mReverseSortedRemoved[i] = position;
+        }
+        mLookups = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            mLookups[i] = random.nextInt(itemCount);
+        }
+        mLinearRemoved = new int[removedCount];
+    }
+
+    @Benchmark
+    public int fenwick() {
+        mIndex.removeCurrent(mReverseSortedRemoved);
+        int sum = 0;
+        for (int lookup : mLookups) {
+            sum += mIndex.currentPosition(lookup) + mIndex.originalPosition(lookup / 2);
+        }
+        mIndex.clear();
+        return sum;
+    }
+
+    @Benchmark
+    public int linearScan() {
+        for (int removed : mReverseSortedRemoved) {
+            mLinearRemoved[mLinearRemovedCount++] = removed;
+        }
+        int sum = 0;
+        for (int lookup : mLookups) {
+            sum += linearCurrentPosition(lookup) + linearOriginalPosition(lookup / 2);
+        }
+        mLinearRemovedCount = 0;
+        return sum;
+    }
+
+    private int linearCurrentPosition(int originalPosition) {
+        int shift = 0;
+        for (int i = 0; i < mLinearRemovedCount; i++) {
+            if (mLinearRemoved[i] < originalPosition) shift++;
+        }
+        return originalPosition - shift;
+    }
+
+    private int linearOriginalPosition(int currentPosition) {
+        // Skip over every removal at or before the position, from the lowest one up
+        int originalPosition = currentPosition;
+        for (int i = mLinearRemovedCount - 1; i >= 0; i--) {
+            if (mLinearRemoved[i] > originalPosition) break;
+            originalPosition++;
+        }
+        return originalPosition;
+    }
+}
@@ -0,0 +1,52 @@
+package com.hudomju.swipe.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of driving a whole swipe gesture through {@link SwipeGesture}, from the
+ * finger going down to the dismiss decision.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SwipeGestureBenchmark {
+
+    @Param({"10", "100"})
+    public int moveCount;
+
+    private SwipeGesture mGesture;
+    private float[] mXs;
+    private float[] mYs;
+
+    @Setup
+    public void setUp() {
+        mGesture = new SwipeGesture(16, 800, 8000);
+        mGesture.setViewWidth(1080);
+        mXs = new float[moveCount];
+        mYs = new float[moveCount];
+        for (int i = 0; i < moveCount; i++) {
+            mXs[i] = 100 + 600f * i / moveCount;
+            mYs[i] = 500 + (i % 3);
+        }
+    }
+
+    @Benchmark
+    public int swipe() {
+        mGesture.down(100, 500, 0);
+        float alpha = 0;
+        for (int i = 0; i < moveCount; i++) {
+            mGesture.move(mXs[i], mYs[i]);
+            alpha += mGesture.getAlpha() + mGesture.getTranslationX();
+        }
+        return mGesture.release(mXs[moveCount - 1], 2400, 30) + (int) alpha;
+    }
+}
@@ -0,0 +1,56 @@
+package com.hudomju.swipe.core;
+
+/**
+ * The motion of a row flung off the screen: it keeps the velocity it was released with, and
+ * speeds up just enough to be gone within a maximum duration when that velocity is too low.
+ */
+public final class FlingCurve implements MotionCurve {
+
+    private final long mMaxDurationMillis;
+    private float mDistance;
+    private float mVelocity;
+    private float mAcceleration;
+    private long mDurationMillis;
+
+    /**
+     * @param maxDurationMillis How long a row released at rest takes to leave.
+     */
+    public FlingCurve(long maxDurationMillis) {
+        if (maxDurationMillis <= 0) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        mMaxDurationMillis = maxDurationMillis;
+    }
+
+    /**
+     * @param distance The distance left to travel, in pixels.
+     * @param velocity The velocity towards the target at release, in pixels per second. Moving
+     *                 away from the target counts as being at rest.
+     */
+    public void start(float distance, float velocity) {
+        mDistance = Math.abs(distance);
+        mVelocity = Math.max(0, velocity) / 1000f;
+        if (mDistance == 0) {
+            mDurationMillis = 1;
+            mAcceleration = 0;
+        } else if (mVelocity * mMaxDurationMillis >= mDistance) {
+            mDurationMillis = Math.max(1, (long) Math.ceil(mDistance / mVelocity));
+            mAcceleration = 0;
+        } else {
+            mDurationMillis = mMaxDurationMillis;
+            mAcceleration = 2 * (mDistance - mVelocity * mMaxDurationMillis)
+                    / (mMaxDurationMillis * mMaxDurationMillis);
+        }
+    }
+
+    @Override
+    public float fractionAt(float millis) {
+        if (mDistance == 0 || millis >= mDurationMillis) return 1;
+        return (mVelocity * millis + mAcceleration * millis * millis / 2) / mDistance;
+    }
+
+    @Override
+    public long getDurationMillis() {
+        return mDurationMillis;
+    }
+}
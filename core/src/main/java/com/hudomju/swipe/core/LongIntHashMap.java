@@ -0,0 +1,154 @@
+package com.hudomju.swipe.core;
+
+/**
+ * A map from primitive {@code long} keys to primitive {@code int} values using open addressing
+ * with linear probing. Unlike a {@link java.util.HashMap} it doesn't box its keys or allocate an
+ * entry per mapping, so its memory footprint stays flat and lookups don't produce garbage.
+ */
+public final class LongIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final int mMissingValue;
+    private long[] mKeys;
+    private int[] mValues;
+    private boolean[] mUsed;
+    private int mSize;
+    private int mMask;
+
+    /**
+     * @param initialCapacity The number of mappings the map can hold before growing.
+     * @param missingValue The value returned for keys that are not in the map.
+     */
+    public LongIntHashMap(int initialCapacity, int missingValue) {
+        mMissingValue = missingValue;
+        int capacity = Integer.highestOneBit(Math.max(2, (int) (initialCapacity / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return the value mapped to the key, or the missing value given to the constructor.
+     */
+    public int get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? mMissingValue : mValues[index];
+    }
+
+    /**
+     * @return the value previously mapped to the key, or the missing value.
+     */
+    public int put(long key, int value) {
+        int index = slot(key);
+        while (mUsed[index]) {
+            if (mKeys[index] == key) {
+                int previous = mValues[index];
+                mValues[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mMask;
+        }
+        mUsed[index] = true;
+        mKeys[index] = key;
+        mValues[index] = value;
+        if (++mSize > mKeys.length * LOAD_FACTOR) {
+            grow();
+        }
+        return mMissingValue;
+    }
+
+    /**
+     * @return the value that was mapped to the key, or the missing value.
+     */
+    public int remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) return mMissingValue;
+        int previous = mValues[index];
+        // Shift the following entries of the probe sequence back instead of leaving a tombstone
+        int hole = index;
+        int next = (hole + 1) & mMask;
+        while (mUsed[next]) {
+            int ideal = slot(mKeys[next]);
+            if (((next - ideal) & mMask) >= ((next - hole) & mMask)) {
+                mKeys[hole] = mKeys[next];
+                mValues[hole] = mValues[next];
+                hole = next;
+            }
+            next = (next + 1) & mMask;
+        }
+        mUsed[hole] = false;
+        mSize--;
+        return previous;
+    }
+
+    public void clear() {
+        if (mSize == 0) return;
+        java.util.Arrays.fill(mUsed, false);
+        mSize = 0;
+    }
+
+    /**
+     * Iteration support: the number of slots, some of which may be empty.
+     */
+    public int capacity() {
+        return mKeys.length;
+    }
+
+    /**
+     * Iteration support: whether the slot at the given index holds a mapping.
+     */
+    public boolean isUsedAt(int index) {
+        return mUsed[index];
+    }
+
+    public long keyAt(int index) {
+        return mKeys[index];
+    }
+
+    public int valueAt(int index) {
+        return mValues[index];
+    }
+
+    private int indexOf(long key) {
+        int index = slot(key);
+        while (mUsed[index]) {
+            if (mKeys[index] == key) return index;
+            index = (index + 1) & mMask;
+        }
+        return -1;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mMask;
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mValues = new int[capacity];
+        mUsed = new boolean[capacity];
+        mMask = capacity - 1;
+    }
+
+    private void grow() {
+        long[] keys = mKeys;
+        int[] values = mValues;
+        boolean[] used = mUsed;
+        allocate(keys.length * 2);
+        mSize = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) put(keys[i], values[i]);
+        }
+    }
+}
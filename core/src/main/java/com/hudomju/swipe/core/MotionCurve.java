@@ -0,0 +1,18 @@
+package com.hudomju.swipe.core;
+
+/**
+ * The path of an animated value over time.
+ */
+public interface MotionCurve {
+
+    /**
+     * @return how far the value got from its start towards its target after the given time, where
+     * 0 is the start and 1 the target.
+     */
+    float fractionAt(float millis);
+
+    /**
+     * @return how long the motion lasts, in milliseconds.
+     */
+    long getDurationMillis();
+}
@@ -0,0 +1,21 @@
+package com.hudomju.swipe.core;
+
+/**
+ * An item that has been swiped away and is waiting to be either restored or dismissed for good.
+ */
+public class PendingDismiss implements Comparable<PendingDismiss> {
+
+    public int position;
+    public final long itemId;
+
+    public PendingDismiss(int position, long itemId) {
+        this.position = position;
+        this.itemId = itemId;
+    }
+
+    @Override
+    public int compareTo(PendingDismiss other) {
+        // Sort by descending position
+        return other.position - position;
+    }
+}
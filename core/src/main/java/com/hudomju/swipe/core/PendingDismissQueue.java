@@ -0,0 +1,171 @@
+package com.hudomju.swipe.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps track of the items waiting to be dismissed, up to a maximum number of them.
+ *
+ * @param <T> The kind of items, which may carry extra data such as the views of the row.
+ */
+public final class PendingDismissQueue<T extends PendingDismiss> {
+
+    private final ArrayList<T> mPendingDismisses = new ArrayList<>();
+    // Removals not yet applied to the positions of the pending items
+    private final RemovedPositionIndex mRemovedPositions = new RemovedPositionIndex();
+    // Batches taken out of the queue that are still to be removed from the data set
+    private final List<List<T>> mCommittingBatches = new ArrayList<>();
+    private final RemovedPositionIndex mBatchRemovedPositions = new RemovedPositionIndex();
+    private int mMaxSize = 1;
+
+    /**
+     * Selects pending items, see {@link #removeMatching(Filter, List)}.
+     */
+    public interface Filter<T> {
+        boolean accept(T pendingDismiss);
+    }
+
+    /**
+     * @param maxSize The maximum number of items that can be waiting at the same time.
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("At least one pending dismiss must be allowed");
+        }
+        mMaxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return mMaxSize;
+    }
+
+    public boolean isFull() {
+        return mPendingDismisses.size() >= mMaxSize;
+    }
+
+    public boolean isEmpty() {
+        return mPendingDismisses.isEmpty();
+    }
+
+    public int size() {
+        return mPendingDismisses.size();
+    }
+
+    public T get(int index) {
+        applyRemovedPositions();
+        return mPendingDismisses.get(index);
+    }
+
+    public void add(T pendingDismiss) {
+        applyRemovedPositions();
+        mPendingDismisses.add(pendingDismiss);
+    }
+
+    public boolean remove(T pendingDismiss) {
+        return mPendingDismisses.remove(pendingDismiss);
+    }
+
+    /**
+     * Removes the items accepted by the filter in a single pass, in O(n) however many of them
+     * there are.
+     *
+     * @param removed Receives the removed items, in the order they were added.
+     */
+    public void removeMatching(Filter<? super T> filter, List<T> removed) {
+        applyRemovedPositions();
+        int kept = 0;
+        for (int i = 0, size = mPendingDismisses.size(); i < size; i++) {
+            T pendingDismiss = mPendingDismisses.get(i);
+            if (filter.accept(pendingDismiss)) {
+                removed.add(pendingDismiss);
+            } else {
+                mPendingDismisses.set(kept++, pendingDismiss);
+            }
+        }
+        mPendingDismisses.subList(kept, mPendingDismisses.size()).clear();
+    }
+
+    public T findByPosition(int position) {
+        applyRemovedPositions();
+        for (int i = 0, size = mPendingDismisses.size(); i < size; i++) {
+            T pendingDismiss = mPendingDismisses.get(i);
+            if (pendingDismiss.position == position) return pendingDismiss;
+        }
+        return null;
+    }
+
+    public T findByItemId(long itemId) {
+        for (int i = 0, size = mPendingDismisses.size(); i < size; i++) {
+            T pendingDismiss = mPendingDismisses.get(i);
+            if (pendingDismiss.itemId == itemId) return pendingDismiss;
+        }
+        return null;
+    }
+
+    /**
+     * Updates the positions of the pending items after other items have been removed from the
+     * data set. The removals are recorded in O(log n) each and applied to the pending items the
+     * next time they are read, however many batches were removed in between. That read costs
+     * O(log n) per pending item and forgets the recorded removals, so the bound only holds for the
+     * removals between two reads.
+     *
+     * @param reverseSortedPositions The removed positions, in descending order.
+     */
+    public void onItemsRemoved(int[] reverseSortedPositions) {
+        if (!mCommittingBatches.isEmpty()) {
+            mBatchRemovedPositions.removeCurrent(reverseSortedPositions);
+            for (int i = 0, size = mCommittingBatches.size(); i < size; i++) {
+                List<T> batch = mCommittingBatches.get(i);
+                for (int j = 0, batchSize = batch.size(); j < batchSize; j++) {
+                    T pendingDismiss = batch.get(j);
+                    pendingDismiss.position =
+                            mBatchRemovedPositions.currentPosition(pendingDismiss.position);
+                }
+            }
+            mBatchRemovedPositions.clear();
+        }
+        if (mPendingDismisses.isEmpty()) return;
+        mRemovedPositions.removeCurrent(reverseSortedPositions);
+    }
+
+    /**
+     * Keeps updating the positions of a batch taken out of the queue, such as by {@link #drain()},
+     * while other batches are removed from the data set before it, until
+     * {@link #finishCommit(List)}.
+     */
+    public void startCommit(List<T> batch) {
+        mCommittingBatches.add(batch);
+    }
+
+    /**
+     * Stops updating the positions of a batch, before it is removed from the data set.
+     */
+    public void finishCommit(List<T> batch) {
+        for (int i = mCommittingBatches.size() - 1; i >= 0; i--) {
+            if (mCommittingBatches.get(i) == batch) mCommittingBatches.remove(i);
+        }
+    }
+
+    private void applyRemovedPositions() {
+        if (mRemovedPositions.isEmpty()) return;
+        for (int i = 0, size = mPendingDismisses.size(); i < size; i++) {
+            T pendingDismiss = mPendingDismisses.get(i);
+            pendingDismiss.position = mRemovedPositions.currentPosition(pendingDismiss.position);
+        }
+        mRemovedPositions.clear();
+    }
+
+    /**
+     * Removes all the pending items.
+     *
+     * @return the removed items, sorted by descending position.
+     */
+    public List<T> drain() {
+        applyRemovedPositions();
+        List<T> pendingDismisses = new ArrayList<>(mPendingDismisses);
+        mPendingDismisses.clear();
+        Collections.sort(pendingDismisses);
+        return pendingDismisses;
+    }
+}
@@ -0,0 +1,136 @@
+package com.hudomju.swipe.core;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Maps positions of a data set before some of its items were removed to the positions after the
+ * removals, and back, in O(log n) no matter how many items were removed. The removed positions
+ * are counted by a Fenwick tree that grows with the largest removed position.
+ */
+public final class RemovedPositionIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int mCapacity = INITIAL_CAPACITY;
+    // Fenwick tree over the original positions, 1-based, counting the removed ones
+    private int[] mTree = new int[INITIAL_CAPACITY + 1];
+    private final BitSet mRemoved = new BitSet();
+    private int[] mRemovedPositions = new int[16];
+    private int mRemovedCount;
+
+    public boolean isEmpty() {
+        return mRemovedCount == 0;
+    }
+
+    /**
+     * @return the number of removed positions.
+     */
+    public int size() {
+        return mRemovedCount;
+    }
+
+    /**
+     * Marks the item at the given original position as removed. Removing the same position twice
+     * has no effect.
+     */
+    public void remove(int originalPosition) {
+        if (originalPosition < 0) {
+            throw new IllegalArgumentException("Negative position " + originalPosition);
+        }
+        if (mRemoved.get(originalPosition)) return;
+        if (originalPosition >= mCapacity) grow(originalPosition + 1);
+        mRemoved.set(originalPosition);
+        if (mRemovedCount == mRemovedPositions.length) {
+            mRemovedPositions = Arrays.copyOf(mRemovedPositions, mRemovedCount * 2);
+        }
+        mRemovedPositions[mRemovedCount++] = originalPosition;
+        update(originalPosition + 1, 1);
+    }
+
+    /**
+     * Marks as removed the items at the given current positions, all of them measured before any
+     * of them is removed.
+     */
+    public void removeCurrent(int[] currentPositions) {
+        int[] originalPositions = new int[currentPositions.length];
+        for (int i = 0; i < currentPositions.length; i++) {
+            originalPositions[i] = originalPosition(currentPositions[i]);
+        }
+        for (int originalPosition : originalPositions) {
+            remove(originalPosition);
+        }
+    }
+
+    public boolean isRemoved(int originalPosition) {
+        return mRemoved.get(originalPosition);
+    }
+
+    /**
+     * @return the current position of the item at the given original position. For a removed
+     * item, the position the next item that was kept now has.
+     */
+    public int currentPosition(int originalPosition) {
+        return originalPosition - removedBefore(originalPosition);
+    }
+
+    /**
+     * @return the original position of the kept item now at the given current position.
+     */
+    public int originalPosition(int currentPosition) {
+        // Find the longest prefix of original positions keeping no more than currentPosition items
+        int remaining = currentPosition + 1;
+        int prefix = 0;
+        for (int step = mCapacity; step > 0; step >>= 1) {
+            int next = prefix + step;
+            if (next <= mCapacity) {
+                int kept = step - mTree[next];
+                if (kept < remaining) {
+                    prefix = next;
+                    remaining -= kept;
+                }
+            }
+        }
+        return prefix < mCapacity ? prefix : mCapacity + remaining - 1;
+    }
+
+    /**
+     * Forgets every removal, in time proportional to the number of removed positions.
+     */
+    public void clear() {
+        for (int i = 0; i < mRemovedCount; i++) {
+            update(mRemovedPositions[i] + 1, -1);
+            mRemoved.clear(mRemovedPositions[i]);
+        }
+        mRemovedCount = 0;
+    }
+
+    private int removedBefore(int originalPosition) {
+        int count = 0;
+        for (int i = Math.min(originalPosition, mCapacity); i > 0; i -= i & -i) {
+            count += mTree[i];
+        }
+        return count;
+    }
+
+    private void update(int index, int delta) {
+        for (int i = index; i <= mCapacity; i += i & -i) {
+            mTree[i] += delta;
+        }
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = mCapacity;
+        while (capacity < minCapacity) capacity <<= 1;
+        int[] tree = new int[capacity + 1];
+        for (int i = mRemoved.nextSetBit(0); i >= 0; i = mRemoved.nextSetBit(i + 1)) {
+            tree[i + 1] = 1;
+        }
+        for (int i = 1; i <= capacity; i++) {
+            int parent = i + (i & -i);
+            if (parent <= capacity) tree[parent] += tree[i];
+        }
+        mCapacity = capacity;
+        mTree = tree;
+    }
+}
@@ -0,0 +1,93 @@
+package com.hudomju.swipe.core;
+
+/**
+ * The motion of a critically damped spring pulling a value towards a target, starting with a
+ * given velocity. Used to bring a released row back into place continuing the motion of the
+ * finger.
+ */
+public final class SpringCurve implements MotionCurve {
+
+    private static final long MAX_DURATION_MILLIS = 2000;
+
+    private final float mAngularFrequency;
+    private float mFrom;
+    private float mTo;
+    private float mC1;
+    private float mC2;
+    private float mTolerance;
+    private long mDurationMillis;
+
+    /**
+     * @param settleMillis How long the spring takes to settle within 1% of the distance when
+     *                     starting at rest, which defines its stiffness.
+     */
+    public SpringCurve(long settleMillis) {
+        if (settleMillis <= 0) {
+            throw new IllegalArgumentException("Settle time must be positive");
+        }
+        // (1 + wt) * e^-wt = 0.01 for wt = 6.64
+        mAngularFrequency = 6.64f * 1000f / settleMillis;
+    }
+
+    /**
+     * @param velocity The initial velocity, in units per second.
+     * @param tolerance How close to the target the value has to stay for the motion to end.
+     */
+    public void start(float from, float to, float velocity, float tolerance) {
+        mFrom = from;
+        mTo = to;
+        mC1 = from - to;
+        mC2 = velocity + mAngularFrequency * mC1;
+        mTolerance = tolerance;
+        mDurationMillis = computeDurationMillis();
+    }
+
+    /**
+     * @return the value after the given time.
+     */
+    public float valueAt(float millis) {
+        float t = millis / 1000f;
+        return mTo + (mC1 + mC2 * t) * (float) Math.exp(-mAngularFrequency * t);
+    }
+
+    @Override
+    public float fractionAt(float millis) {
+        if (mTo == mFrom || millis >= mDurationMillis) return 1;
+        return (valueAt(millis) - mFrom) / (mTo - mFrom);
+    }
+
+    @Override
+    public long getDurationMillis() {
+        return mDurationMillis;
+    }
+
+    /**
+     * Bisects the time the envelope {@code (|c1| + |c2| t) e^-wt} of the distance to the target
+     * falls within the tolerance. The envelope only shrinks past its peak, so the value stays
+     * within the tolerance from then on. Takes about a dozen steps instead of a search by the
+     * millisecond.
+     */
+    private long computeDurationMillis() {
+        float c1 = Math.abs(mC1);
+        float c2 = Math.abs(mC2);
+        float peakMillis = c2 == 0 ? 0
+                : Math.max(0, 1000f * (c2 - mAngularFrequency * c1) / (mAngularFrequency * c2));
+        long low = (long) peakMillis;
+        long high = MAX_DURATION_MILLIS;
+        if (envelopeAt(high, c1, c2) > mTolerance) return MAX_DURATION_MILLIS;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (envelopeAt(middle, c1, c2) <= mTolerance) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return Math.max(1, low);
+    }
+
+    private float envelopeAt(long millis, float c1, float c2) {
+        float t = millis / 1000f;
+        return (c1 + c2 * t) * (float) Math.exp(-mAngularFrequency * t);
+    }
+}
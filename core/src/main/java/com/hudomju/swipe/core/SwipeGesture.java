@@ -0,0 +1,195 @@
+package com.hudomju.swipe.core;
+
+/**
+ * The swipe-to-dismiss gesture of a single row, without any dependency on the Android framework.
+ * It is fed with raw coordinates and times, decides when the gesture becomes a swipe and whether
+ * the row should be dismissed once it is released.
+ */
+public final class SwipeGesture {
+
+    /** No gesture in progress. */
+    public static final int STATE_IDLE = 0;
+    /** A finger is down on a row that can be dismissed, but it hasn't moved enough yet. */
+    public static final int STATE_TRACKING = 1;
+    /** The row is following the finger horizontally. */
+    public static final int STATE_SWIPING = 2;
+
+    /** The row should go back to where it was. */
+    public static final int RELEASE_CANCEL = 0;
+    /** The row should be dismissed to the left. */
+    public static final int RELEASE_DISMISS_LEFT = 1;
+    /** The row should be dismissed to the right. */
+    public static final int RELEASE_DISMISS_RIGHT = 2;
+
+    private final int mSlop;
+    private final int mMinFlingVelocity;
+    private final int mMaxFlingVelocity;
+    private int mViewWidth = 1; // 1 and not 0 to prevent dividing by zero
+
+    private int mState = STATE_IDLE;
+    private float mDownX;
+    private float mDownY;
+    private long mDownTime;
+    private float mDeltaX;
+    private int mSwipingSlop;
+
+    /**
+     * @param slop The distance in pixels a finger has to travel before it is a swipe.
+     * @param minFlingVelocity The minimum velocity in pixels per second of a fling that dismisses.
+     * @param maxFlingVelocity The maximum velocity in pixels per second of a fling that dismisses.
+     */
+    public SwipeGesture(int slop, int minFlingVelocity, int maxFlingVelocity) {
+        mSlop = slop;
+        mMinFlingVelocity = minFlingVelocity;
+        mMaxFlingVelocity = maxFlingVelocity;
+    }
+
+    /**
+     * @param viewWidth The width of the rows, in pixels.
+     */
+    public void setViewWidth(int viewWidth) {
+        mViewWidth = Math.max(1, viewWidth);
+    }
+
+    public int getViewWidth() {
+        return mViewWidth;
+    }
+
+    /**
+     * Starts tracking a finger that went down on a row that can be dismissed.
+     */
+    public void down(float x, float y, long timeMillis) {
+        mState = STATE_TRACKING;
+        mDownX = x;
+        mDownY = y;
+        mDownTime = timeMillis;
+        mDeltaX = 0;
+        mSwipingSlop = 0;
+    }
+
+    /**
+     * Moves the finger being tracked.
+     *
+     * @return whether this move turned the gesture into a swipe.
+     */
+    public boolean move(float x, float y) {
+        if (mState == STATE_IDLE) return false;
+        mDeltaX = x - mDownX;
+        float deltaY = y - mDownY;
+        if (mState == STATE_TRACKING && Math.abs(mDeltaX) > mSlop
+                && Math.abs(deltaY) < Math.abs(mDeltaX) / 2) {
+            mState = STATE_SWIPING;
+            mSwipingSlop = mDeltaX > 0 ? mSlop : -mSlop;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Lifts the finger being tracked and decides what should happen to the row.
+     *
+     * @param velocityX The horizontal velocity of the finger, in pixels per second.
+     * @param velocityY The vertical velocity of the finger, in pixels per second.
+     * @return one of {@link #RELEASE_CANCEL}, {@link #RELEASE_DISMISS_LEFT} or
+     * {@link #RELEASE_DISMISS_RIGHT}.
+     */
+    public int release(float x, float velocityX, float velocityY) {
+        boolean swiping = mState == STATE_SWIPING;
+        float deltaX = mState == STATE_IDLE ? 0 : x - mDownX;
+        mState = STATE_IDLE;
+        return decide(swiping, deltaX, velocityX, velocityY);
+    }
+
+    /**
+     * Lifts the finger being tracked like {@link #release(float, float, float)}, but decides with
+     * the point where the row is predicted to land instead of where the finger was lifted.
+     *
+     * @param projectionMillis How far in the future the row keeps moving at the release velocity.
+     */
+    public int releaseProjected(float x, float velocityX, float velocityY, long projectionMillis) {
+        return release(x + velocityX * projectionMillis / 1000f, velocityX, velocityY);
+    }
+
+    /**
+     * Decides whether a released row should be dismissed, without changing the gesture state.
+     */
+    public int decide(boolean swiping, float deltaX, float velocityX, float velocityY) {
+        if (!swiping) return RELEASE_CANCEL;
+        float absVelocityX = Math.abs(velocityX);
+        float absVelocityY = Math.abs(velocityY);
+        if (Math.abs(deltaX) > mViewWidth / 2) {
+            return deltaX > 0 ? RELEASE_DISMISS_RIGHT : RELEASE_DISMISS_LEFT;
+        } else if (mMinFlingVelocity <= absVelocityX && absVelocityX <= mMaxFlingVelocity
+                && absVelocityY < absVelocityX) {
+            // dismiss only if flinging in the same direction as dragging
+            if ((velocityX < 0) != (deltaX < 0)) return RELEASE_CANCEL;
+            return velocityX > 0 ? RELEASE_DISMISS_RIGHT : RELEASE_DISMISS_LEFT;
+        }
+        return RELEASE_CANCEL;
+    }
+
+    /**
+     * Stops tracking the finger without dismissing the row.
+     */
+    public void cancel() {
+        mState = STATE_IDLE;
+    }
+
+    public int getState() {
+        return mState;
+    }
+
+    public boolean isTracking() {
+        return mState != STATE_IDLE;
+    }
+
+    public boolean isSwiping() {
+        return mState == STATE_SWIPING;
+    }
+
+    public long getDownTime() {
+        return mDownTime;
+    }
+
+    /**
+     * @return the horizontal distance travelled by the finger since it went down.
+     */
+    public float getDeltaX() {
+        return mDeltaX;
+    }
+
+    /**
+     * @return the horizontal translation of the swiping row.
+     */
+    public float getTranslationX() {
+        return mDeltaX - mSwipingSlop;
+    }
+
+    /**
+     * @return the horizontal translation the swiping row had when the finger was at the given x.
+     */
+    public float translationForX(float x) {
+        return x - mDownX - mSwipingSlop;
+    }
+
+    /**
+     * @return the alpha the swiping row had when the finger was at the given x.
+     */
+    public float alphaForX(float x) {
+        return alphaForDeltaX(x - mDownX);
+    }
+
+    /**
+     * @return the alpha of the swiping row, fading out as it gets away from its place.
+     */
+    public float getAlpha() {
+        return alphaForDeltaX(mDeltaX);
+    }
+
+    /**
+     * @return the alpha of a row swiped by the given distance.
+     */
+    public float alphaForDeltaX(float deltaX) {
+        return Math.max(0f, Math.min(1f, 1f - 2f * Math.abs(deltaX) / mViewWidth));
+    }
+}
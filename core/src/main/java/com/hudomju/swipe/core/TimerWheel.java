@@ -0,0 +1,208 @@
+package com.hudomju.swipe.core;
+
+import java.util.Arrays;
+
+/**
+ * A hashed timer wheel holding one deadline per id. Deadlines are hashed into slots by their tick,
+ * so scheduling and cancelling cost O(1) whatever the number of timers, and finding the next
+ * deadline only scans the slots of one rotation. This lets a single message on a
+ * {@link java.util.concurrent.ScheduledExecutorService} or Android Handler drive all the timers.
+ */
+public final class TimerWheel {
+
+    /** Returned by {@link #nextDeadline()} when there are no timers. */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static final int NONE = -1;
+
+    private final long mTickMillis;
+    private final int[] mSlotHeads;
+    private final int mSlotMask;
+    private final LongIntHashMap mEntriesById;
+
+    // Entries are pooled in parallel arrays and linked per slot
+    private long[] mIds;
+    private long[] mDeadlines;
+    private long[] mTicks;
+    private int[] mPrevious;
+    private int[] mNext;
+    private int mFreeHead = NONE;
+    private int mEntryCount;
+
+    private long mCursorTick = -1;
+    private long[] mExpired = new long[16];
+    private int mExpiredCount;
+
+    /**
+     * @param tickMillis The time covered by each slot.
+     * @param slotCount The number of slots, rounded up to a power of two.
+     */
+    public TimerWheel(long tickMillis, int slotCount) {
+        if (tickMillis <= 0 || slotCount <= 0) {
+            throw new IllegalArgumentException("The tick and the slot count must be positive");
+        }
+        mTickMillis = tickMillis;
+        int slots = 1;
+        while (slots < slotCount) slots <<= 1;
+        mSlotHeads = new int[slots];
+        Arrays.fill(mSlotHeads, NONE);
+        mSlotMask = slots - 1;
+        mEntriesById = new LongIntHashMap(16, NONE);
+        allocateEntries(16);
+    }
+
+    public int size() {
+        return mEntriesById.size();
+    }
+
+    public boolean isEmpty() {
+        return mEntriesById.isEmpty();
+    }
+
+    /**
+     * Schedules the timer of the given id, replacing its previous deadline if any.
+     */
+    public void schedule(long id, long deadlineMillis) {
+        cancel(id);
+        int entry = obtainEntry();
+        long tick = deadlineMillis / mTickMillis;
+        if (mCursorTick < 0 || tick < mCursorTick) {
+            // Keep every timer at or after the cursor, so scanning from it finds them all
+            mCursorTick = tick;
+        }
+        mIds[entry] = id;
+        mDeadlines[entry] = deadlineMillis;
+        mTicks[entry] = tick;
+        link(entry, (int) (tick & mSlotMask));
+        mEntriesById.put(id, entry);
+    }
+
+    /**
+     * @return whether there was a timer for the given id.
+     */
+    public boolean cancel(long id) {
+        int entry = mEntriesById.remove(id);
+        if (entry == NONE) return false;
+        unlink(entry);
+        recycleEntry(entry);
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(mSlotHeads, NONE);
+        mEntriesById.clear();
+        mFreeHead = NONE;
+        mEntryCount = 0;
+        mCursorTick = -1;
+    }
+
+    /**
+     * @return the earliest deadline, or {@link #NO_DEADLINE} if there are no timers.
+     */
+    public long nextDeadline() {
+        if (isEmpty()) return NO_DEADLINE;
+        // Timers of the coming rotation are found by scanning their slots in order
+        for (int i = 0; i <= mSlotMask; i++) {
+            long tick = mCursorTick + i;
+            long earliest = NO_DEADLINE;
+            for (int entry = mSlotHeads[(int) (tick & mSlotMask)]; entry != NONE;
+                 entry = mNext[entry]) {
+                if (mTicks[entry] == tick) earliest = Math.min(earliest, mDeadlines[entry]);
+            }
+            if (earliest != NO_DEADLINE) return earliest;
+        }
+        // All the timers are further away than one rotation
+        long earliest = NO_DEADLINE;
+        for (int index = 0; index < mEntriesById.capacity(); index++) {
+            if (mEntriesById.isUsedAt(index)) {
+                earliest = Math.min(earliest, mDeadlines[mEntriesById.valueAt(index)]);
+            }
+        }
+        return earliest;
+    }
+
+    /**
+     * Removes the timers whose deadline has passed. Their ids are then available through
+     * {@link #getExpiredId(int)} until the next call.
+     *
+     * @return the number of expired timers.
+     */
+    public int expire(long nowMillis) {
+        mExpiredCount = 0;
+        long nowTick = nowMillis / mTickMillis;
+        long fromTick = mCursorTick >= 0 ? mCursorTick : nowTick;
+        // A gap longer than a rotation visits every slot once
+        long toTick = Math.min(nowTick, fromTick + mSlotMask);
+        for (long tick = fromTick; tick <= toTick; tick++) {
+            int entry = mSlotHeads[(int) (tick & mSlotMask)];
+            while (entry != NONE) {
+                int next = mNext[entry];
+                if (mDeadlines[entry] <= nowMillis) {
+                    addExpired(mIds[entry]);
+                    mEntriesById.remove(mIds[entry]);
+                    unlink(entry);
+                    recycleEntry(entry);
+                }
+                entry = next;
+            }
+        }
+        // The current tick may still hold timers due later within it
+        mCursorTick = nowTick;
+        return mExpiredCount;
+    }
+
+    public long getExpiredId(int index) {
+        return mExpired[index];
+    }
+
+    private void addExpired(long id) {
+        if (mExpiredCount == mExpired.length) {
+            mExpired = Arrays.copyOf(mExpired, mExpired.length * 2);
+        }
+        mExpired[mExpiredCount++] = id;
+    }
+
+    private int obtainEntry() {
+        if (mFreeHead != NONE) {
+            int entry = mFreeHead;
+            mFreeHead = mNext[entry];
+            return entry;
+        }
+        if (mEntryCount == mIds.length) {
+            allocateEntries(mIds.length * 2);
+        }
+        return mEntryCount++;
+    }
+
+    private void recycleEntry(int entry) {
+        mNext[entry] = mFreeHead;
+        mFreeHead = entry;
+    }
+
+    private void link(int entry, int slot) {
+        int head = mSlotHeads[slot];
+        mPrevious[entry] = NONE;
+        mNext[entry] = head;
+        if (head != NONE) mPrevious[head] = entry;
+        mSlotHeads[slot] = entry;
+    }
+
+    private void unlink(int entry) {
+        int previous = mPrevious[entry];
+        int next = mNext[entry];
+        if (previous != NONE) {
+            mNext[previous] = next;
+        } else {
+            mSlotHeads[(int) (mTicks[entry] & mSlotMask)] = next;
+        }
+        if (next != NONE) mPrevious[next] = previous;
+    }
+
+    private void allocateEntries(int capacity) {
+        mIds = mIds == null ? new long[capacity] : Arrays.copyOf(mIds, capacity);
+        mDeadlines = mDeadlines == null ? new long[capacity] : Arrays.copyOf(mDeadlines, capacity);
+        mTicks = mTicks == null ? new long[capacity] : Arrays.copyOf(mTicks, capacity);
+        mPrevious = mPrevious == null ? new int[capacity] : Arrays.copyOf(mPrevious, capacity);
+        mNext = mNext == null ? new int[capacity] : Arrays.copyOf(mNext, capacity);
+    }
+}
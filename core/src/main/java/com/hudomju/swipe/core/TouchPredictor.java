@@ -0,0 +1,78 @@
+package com.hudomju.swipe.core;
+
+/**
+ * Predicts where a finger moving horizontally will be a few milliseconds ahead, so a row can be
+ * drawn where the finger is instead of where it was. The prediction extrapolates the estimated
+ * velocity, damped, never further than the finger travelled over the same time just before, and
+ * not at all right after the finger turned around.
+ */
+public final class TouchPredictor {
+
+    /** Fraction of the extrapolated distance that is predicted. */
+    public static final float DEFAULT_DAMPING = 0.8f;
+
+    private static final int CAPACITY = 8;
+
+    private final VelocityEstimator mVelocityEstimator = new VelocityEstimator(CAPACITY);
+    private final float[] mXs = new float[CAPACITY];
+    private final long[] mTimes = new long[CAPACITY];
+    private final float mDamping;
+    private int mNewest = -1;
+    private int mCount;
+
+    public TouchPredictor() {
+        this(DEFAULT_DAMPING);
+    }
+
+    /**
+     * @param damping Fraction of the extrapolated distance that is predicted, between 0 and 1.
+     */
+    public TouchPredictor(float damping) {
+        if (damping < 0 || damping > 1) {
+            throw new IllegalArgumentException("Damping must be between 0 and 1");
+        }
+        mDamping = damping;
+    }
+
+    public void clear() {
+        mVelocityEstimator.clear();
+        mNewest = -1;
+        mCount = 0;
+    }
+
+    public void addSample(float x, long timeMillis) {
+        mVelocityEstimator.addSample(x, 0, timeMillis);
+        mNewest = (mNewest + 1) % CAPACITY;
+        mXs[mNewest] = x;
+        mTimes[mNewest] = timeMillis;
+        mCount = Math.min(mCount + 1, CAPACITY);
+    }
+
+    /**
+     * @return the predicted horizontal position of the finger after the given time, or its last
+     * known position when no movement can be predicted.
+     */
+    public float predictX(long aheadMillis) {
+        if (mCount == 0) return 0;
+        float newestX = mXs[mNewest];
+        if (mCount < 3 || aheadMillis <= 0) return newestX;
+
+        float velocityX = mVelocityEstimator.getVelocityX();
+        float lastStep = newestX - mXs[(mNewest - 1 + CAPACITY) % CAPACITY];
+        if (lastStep != 0 && (lastStep > 0) != (velocityX > 0)) {
+            // The finger is turning around, any extrapolation would overshoot
+            return newestX;
+        }
+        float distance = velocityX * aheadMillis / 1000f * mDamping;
+
+        // Never predict further than the finger moved during the same time until now
+        long newestTime = mTimes[mNewest];
+        float travelled = 0;
+        for (int i = 1; i < mCount; i++) {
+            int index = (mNewest - i + CAPACITY) % CAPACITY;
+            travelled = Math.abs(newestX - mXs[index]);
+            if (newestTime - mTimes[index] >= aheadMillis) break;
+        }
+        return newestX + Math.max(-travelled, Math.min(travelled, distance));
+    }
+}
@@ -0,0 +1,88 @@
+package com.hudomju.swipe.core;
+
+/**
+ * Estimates the velocity of a finger with a least squares fit over its most recent samples. The
+ * samples are kept in a fixed ring buffer of primitives, so feeding and querying the estimator
+ * never allocates.
+ */
+public final class VelocityEstimator {
+
+    /** Samples older than this, relative to the newest one, are ignored. */
+    private static final long HORIZON_MILLIS = 100;
+    /** A pause longer than this means the finger stopped, so older samples are ignored. */
+    private static final long ASSUME_STOPPED_MILLIS = 40;
+
+    private final float[] mXs;
+    private final float[] mYs;
+    private final long[] mTimes;
+    private int mNewest = -1;
+    private int mCount;
+
+    /**
+     * @param capacity The maximum number of samples taken into account.
+     */
+    public VelocityEstimator(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("At least two samples are needed");
+        }
+        mXs = new float[capacity];
+        mYs = new float[capacity];
+        mTimes = new long[capacity];
+    }
+
+    public void clear() {
+        mNewest = -1;
+        mCount = 0;
+    }
+
+    public void addSample(float x, float y, long timeMillis) {
+        mNewest = (mNewest + 1) % mXs.length;
+        mXs[mNewest] = x;
+        mYs[mNewest] = y;
+        mTimes[mNewest] = timeMillis;
+        mCount = Math.min(mCount + 1, mXs.length);
+    }
+
+    /**
+     * @return the horizontal velocity in pixels per second.
+     */
+    public float getVelocityX() {
+        return fit(mXs);
+    }
+
+    /**
+     * @return the vertical velocity in pixels per second.
+     */
+    public float getVelocityY() {
+        return fit(mYs);
+    }
+
+    /**
+     * Least squares slope of the values over time, in units per second.
+     */
+    private float fit(float[] values) {
+        if (mCount < 2) return 0;
+        long newestTime = mTimes[mNewest];
+        long previousTime = newestTime;
+        int n = 0;
+        double sumT = 0, sumV = 0, sumTT = 0, sumTV = 0;
+        for (int i = 0; i < mCount; i++) {
+            int index = (mNewest - i + mXs.length) % mXs.length;
+            long time = mTimes[index];
+            if (newestTime - time > HORIZON_MILLIS || previousTime - time > ASSUME_STOPPED_MILLIS) {
+                break;
+            }
+            double t = (time - newestTime) / 1000.0;
+            double v = values[index];
+            sumT += t;
+            sumV += v;
+            sumTT += t * t;
+            sumTV += t * v;
+            previousTime = time;
+            n++;
+        }
+        double denominator = n * sumTT - sumT * sumT;
+        if (n < 2 || denominator == 0) return 0;
+        return (float) ((n * sumTV - sumT * sumV) / denominator);
+    }
+}
@@ -0,0 +1,62 @@
+package com.hudomju.swipe.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FlingCurveTest {
+
+    private static final long MAX_DURATION = 200;
+    private static final float DELTA = 0.001f;
+
+    private FlingCurve mCurve;
+
+    @Before
+    public void setUp() {
+        mCurve = new FlingCurve(MAX_DURATION);
+    }
+
+    @Test
+    public void fastFlingKeepsItsVelocity() {
+        mCurve.start(500, 5000);
+        assertEquals(100, mCurve.getDurationMillis());
+        assertEquals(0, mCurve.fractionAt(0), DELTA);
+        assertEquals(0.5f, mCurve.fractionAt(50), DELTA);
+        assertEquals(1, mCurve.fractionAt(100), 0);
+    }
+
+    @Test
+    public void slowReleaseSpeedsUpToLeaveInTime() {
+        mCurve.start(-500, 500);
+        assertEquals(MAX_DURATION, mCurve.getDurationMillis());
+        assertEquals(0, mCurve.fractionAt(0), DELTA);
+        assertEquals(1, mCurve.fractionAt(MAX_DURATION), 0);
+        // Reaches the end without jumping
+        assertEquals(1, mCurve.fractionAt(MAX_DURATION - 1), 0.02f);
+        float previous = 0;
+        for (long millis = 1; millis <= MAX_DURATION; millis++) {
+            float fraction = mCurve.fractionAt(millis);
+            assertTrue("fraction at " + millis, fraction > previous);
+            previous = fraction;
+        }
+    }
+
+    @Test
+    public void movingAwayCountsAsRest() {
+        mCurve.start(500, -3000);
+        long awayDuration = mCurve.getDurationMillis();
+        float awayFraction = mCurve.fractionAt(100);
+        mCurve.start(500, 0);
+        assertEquals(awayDuration, mCurve.getDurationMillis());
+        assertEquals(awayFraction, mCurve.fractionAt(100), 0);
+    }
+
+    @Test
+    public void nothingLeftToTravelEndsAtOnce() {
+        mCurve.start(0, 1000);
+        assertEquals(1, mCurve.getDurationMillis());
+        assertEquals(1, mCurve.fractionAt(0), 0);
+    }
+}
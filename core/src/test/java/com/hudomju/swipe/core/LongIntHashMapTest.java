@@ -0,0 +1,101 @@
+package com.hudomju.swipe.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongIntHashMapTest {
+
+    private static final int MISSING = -1;
+
+    private LongIntHashMap mMap;
+
+    @Before
+    public void setUp() {
+        mMap = new LongIntHashMap(4, MISSING);
+    }
+
+    @Test
+    public void putReturnsPreviousValue() {
+        assertEquals(MISSING, mMap.put(7, 1));
+        assertEquals(1, mMap.put(7, 2));
+        assertEquals(2, mMap.get(7));
+        assertEquals(MISSING, mMap.get(8));
+        assertEquals(1, mMap.size());
+    }
+
+    @Test
+    public void removeKeepsCollidingKeysReachable() {
+        // Fill the table to its load factor so the keys form probe chains, then punch holes in them
+        int capacity = mMap.capacity();
+        long[] keys = new long[capacity / 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 31L;
+            mMap.put(keys[i], i);
+        }
+        assertEquals(capacity, mMap.capacity());
+        for (int i = 0; i < keys.length; i += 2) {
+            assertEquals(i, mMap.remove(keys[i]));
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i % 2 == 0 ? MISSING : i, mMap.get(keys[i]));
+        }
+        assertEquals(keys.length / 2, mMap.size());
+        assertEquals(MISSING, mMap.remove(keys[0]));
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomOperations() {
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(300) - 150;
+            if (random.nextInt(3) == 0) {
+                Integer previous = expected.remove(key);
+                assertEquals(previous == null ? MISSING : previous, mMap.remove(key));
+            } else {
+                Integer previous = expected.put(key, i);
+                assertEquals(previous == null ? MISSING : previous, mMap.put(key, i));
+            }
+        }
+        assertEquals(expected.size(), mMap.size());
+        int visited = 0;
+        for (int i = 0; i < mMap.capacity(); i++) {
+            if (!mMap.isUsedAt(i)) continue;
+            assertEquals(expected.get(mMap.keyAt(i)).intValue(), mMap.valueAt(i));
+            visited++;
+        }
+        assertEquals(expected.size(), visited);
+        for (long key = -150; key < 150; key++) {
+            assertEquals(expected.containsKey(key), mMap.containsKey(key));
+        }
+    }
+
+    @Test
+    public void growKeepsMappings() {
+        for (int i = 0; i < 1000; i++) {
+            mMap.put(Long.MAX_VALUE - i, i);
+        }
+        assertEquals(1000, mMap.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, mMap.get(Long.MAX_VALUE - i));
+        }
+    }
+
+    @Test
+    public void clearEmptiesTheMap() {
+        mMap.put(1, 1);
+        mMap.put(2, 2);
+        mMap.clear();
+        assertTrue(mMap.isEmpty());
+        assertFalse(mMap.containsKey(1));
+        assertEquals(MISSING, mMap.get(2));
+    }
+}
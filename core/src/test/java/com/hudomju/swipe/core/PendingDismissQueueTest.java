@@ -0,0 +1,103 @@
+package com.hudomju.swipe.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PendingDismissQueueTest {
+
+    private PendingDismissQueue<PendingDismiss> mQueue;
+
+    @Before
+    public void setUp() {
+        mQueue = new PendingDismissQueue<>();
+        mQueue.setMaxSize(10);
+    }
+
+    @Test
+    public void removeMatchingKeepsOrderOfBothParts() {
+        for (int i = 0; i < 6; i++) {
+            mQueue.add(new PendingDismiss(i, 100 + i));
+        }
+        List<PendingDismiss> removed = new ArrayList<>();
+        mQueue.removeMatching(new PendingDismissQueue.Filter<PendingDismiss>() {
+            @Override
+            public boolean accept(PendingDismiss pendingDismiss) {
+                return pendingDismiss.itemId % 2 == 1;
+            }
+        }, removed);
+        assertEquals(3, removed.size());
+        assertEquals(3, mQueue.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(101 + 2 * i, removed.get(i).itemId);
+            assertEquals(100 + 2 * i, mQueue.get(i).itemId);
+        }
+    }
+
+    @Test
+    public void positionsFollowRemovalsBetweenReads() {
+        PendingDismiss first = new PendingDismiss(3, 1);
+        PendingDismiss second = new PendingDismiss(8, 2);
+        mQueue.add(first);
+        mQueue.add(second);
+        mQueue.onItemsRemoved(new int[] {5, 0});
+        mQueue.onItemsRemoved(new int[] {4});
+        assertSame(first, mQueue.findByPosition(2));
+        assertSame(second, mQueue.findByPosition(5));
+        assertNull(mQueue.findByPosition(8));
+    }
+
+    @Test
+    public void overlappingCommitsFollowEachOther() {
+        // Row 5 is committed and collapses, row 10 is committed before row 5 is removed
+        mQueue.add(new PendingDismiss(5, 1));
+        List<PendingDismiss> first = mQueue.drain();
+        mQueue.startCommit(first);
+        mQueue.add(new PendingDismiss(10, 2));
+        List<PendingDismiss> second = mQueue.drain();
+        mQueue.startCommit(second);
+
+        mQueue.finishCommit(first);
+        mQueue.onItemsRemoved(new int[] {5});
+        assertEquals(9, second.get(0).position);
+
+        // Finished batches no longer move
+        mQueue.finishCommit(second);
+        mQueue.onItemsRemoved(new int[] {0});
+        assertEquals(9, second.get(0).position);
+        assertEquals(5, first.get(0).position);
+    }
+
+    @Test
+    public void committingBatchFollowsRemovalsWithPendingItems() {
+        List<PendingDismiss> committing = new ArrayList<>();
+        committing.add(new PendingDismiss(8, 1));
+        committing.add(new PendingDismiss(3, 2));
+        mQueue.startCommit(committing);
+        PendingDismiss pending = new PendingDismiss(6, 3);
+        mQueue.add(pending);
+        mQueue.onItemsRemoved(new int[] {7, 1});
+        mQueue.onItemsRemoved(new int[] {0});
+        assertEquals(5, committing.get(0).position);
+        assertEquals(1, committing.get(1).position);
+        assertSame(pending, mQueue.findByPosition(4));
+    }
+
+    @Test
+    public void drainSortsByDescendingPosition() {
+        mQueue.add(new PendingDismiss(2, 1));
+        mQueue.add(new PendingDismiss(7, 2));
+        mQueue.add(new PendingDismiss(4, 3));
+        List<PendingDismiss> drained = mQueue.drain();
+        assertEquals(7, drained.get(0).position);
+        assertEquals(4, drained.get(1).position);
+        assertEquals(2, drained.get(2).position);
+        assertEquals(0, mQueue.size());
+    }
+}
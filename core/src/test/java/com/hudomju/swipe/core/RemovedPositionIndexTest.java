@@ -0,0 +1,106 @@
+package com.hudomju.swipe.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RemovedPositionIndexTest {
+
+    private RemovedPositionIndex mIndex;
+
+    @Before
+    public void setUp() {
+        mIndex = new RemovedPositionIndex();
+    }
+
+    @Test
+    public void mapsPositionsAroundRemovals() {
+        mIndex.remove(2);
+        mIndex.remove(5);
+        assertEquals(0, mIndex.currentPosition(0));
+        assertEquals(2, mIndex.currentPosition(3));
+        assertEquals(5, mIndex.currentPosition(7));
+        assertEquals(3, mIndex.originalPosition(2));
+        assertEquals(6, mIndex.originalPosition(4));
+        assertTrue(mIndex.isRemoved(5));
+        assertFalse(mIndex.isRemoved(4));
+    }
+
+    @Test
+    public void removingTwiceHasNoEffect() {
+        mIndex.remove(3);
+        mIndex.remove(3);
+        assertEquals(1, mIndex.size());
+        assertEquals(4, mIndex.originalPosition(3));
+    }
+
+    @Test
+    public void matchesListAfterInterleavedRemovals() {
+        // Spans well past the initial capacity so the tree has to grow
+        int itemCount = 500;
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.add(i);
+        }
+        Random random = new Random(42);
+        while (items.size() > 10) {
+            if (random.nextBoolean()) {
+                int original = items.get(random.nextInt(items.size()));
+                items.remove(Integer.valueOf(original));
+                mIndex.remove(original);
+            } else {
+                int[] current = distinctDescending(random, items.size(), 1 + random.nextInt(4));
+                for (int position : current) {
+                    items.remove(position);
+                }
+                mIndex.removeCurrent(current);
+            }
+            assertMatches(items, itemCount);
+        }
+    }
+
+    @Test
+    public void clearForgetsRemovals() {
+        mIndex.remove(1);
+        mIndex.remove(200);
+        mIndex.clear();
+        assertTrue(mIndex.isEmpty());
+        assertFalse(mIndex.isRemoved(200));
+        assertEquals(200, mIndex.currentPosition(200));
+        assertEquals(150, mIndex.originalPosition(150));
+    }
+
+    private void assertMatches(List<Integer> items, int itemCount) {
+        assertEquals(itemCount - items.size(), mIndex.size());
+        for (int current = 0; current < items.size(); current++) {
+            int original = items.get(current);
+            assertEquals("original of " + current, original, mIndex.originalPosition(current));
+            assertEquals("current of " + original, current, mIndex.currentPosition(original));
+            assertFalse(mIndex.isRemoved(original));
+        }
+    }
+
+    private static int[] distinctDescending(Random random, int bound, int count) {
+        count = Math.min(count, bound);
+        boolean[] picked = new boolean[bound];
+        for (int i = 0; i < count; ) {
+            int position = random.nextInt(bound);
+            if (!picked[position]) {
+                picked[position] = true;
+                i++;
+            }
+        }
+        int[] positions = new int[count];
+        for (int position = bound - 1, i = 0; position >= 0; position--) {
+            if (picked[position]) positions[i++] = position;
+        }
+        return positions;
+    }
+}
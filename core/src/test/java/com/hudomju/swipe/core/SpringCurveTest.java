@@ -0,0 +1,64 @@
+package com.hudomju.swipe.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpringCurveTest {
+
+    private static final long SETTLE_MILLIS = 300;
+    private static final float TOLERANCE = 0.5f;
+
+    private SpringCurve mCurve;
+
+    @Before
+    public void setUp() {
+        mCurve = new SpringCurve(SETTLE_MILLIS);
+    }
+
+    @Test
+    public void settlesWithinOnePercentInSettleTime() {
+        mCurve.start(100, 0, 0, 1);
+        assertEquals(SETTLE_MILLIS, mCurve.getDurationMillis(), 2);
+    }
+
+    @Test
+    public void startsAtTheOrigin() {
+        mCurve.start(100, 0, 0, TOLERANCE);
+        assertEquals(100, mCurve.valueAt(0), 0.001f);
+        assertEquals(0, mCurve.fractionAt(0), 0.001f);
+    }
+
+    @Test
+    public void staysWithinToleranceAfterDuration() {
+        float[] velocities = {0, 2000, -2000, -20000};
+        for (float velocity : velocities) {
+            mCurve.start(300, 0, velocity, TOLERANCE);
+            long duration = mCurve.getDurationMillis();
+            assertTrue("duration " + duration, duration > 0);
+            assertEquals(1, mCurve.fractionAt(duration), 0);
+            for (long millis = duration; millis < duration + 1000; millis++) {
+                assertTrue("value at " + millis + " with velocity " + velocity,
+                        Math.abs(mCurve.valueAt(millis)) <= TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void overshootsWhenFlungPastTheTarget() {
+        mCurve.start(100, 0, -20000, TOLERANCE);
+        float lowest = 0;
+        for (long millis = 0; millis < mCurve.getDurationMillis(); millis++) {
+            lowest = Math.min(lowest, mCurve.valueAt(millis));
+        }
+        assertTrue("lowest " + lowest, lowest < -TOLERANCE);
+    }
+
+    @Test
+    public void noDistanceIsAlreadyDone() {
+        mCurve.start(50, 50, 0, TOLERANCE);
+        assertEquals(1, mCurve.fractionAt(0), 0);
+    }
+}
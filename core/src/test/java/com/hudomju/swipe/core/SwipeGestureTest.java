@@ -0,0 +1,108 @@
+package com.hudomju.swipe.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SwipeGestureTest {
+
+    private static final int SLOP = 10;
+    private static final int MIN_FLING = 100;
+    private static final int MAX_FLING = 8000;
+    private static final int WIDTH = 1000;
+
+    private SwipeGesture mGesture;
+
+    @Before
+    public void setUp() {
+        mGesture = new SwipeGesture(SLOP, MIN_FLING, MAX_FLING);
+        mGesture.setViewWidth(WIDTH);
+        mGesture.down(500, 50, 0);
+    }
+
+    @Test
+    public void moveWithinSlopIsNotASwipe() {
+        assertFalse(mGesture.move(500 + SLOP, 50));
+        assertEquals(SwipeGesture.STATE_TRACKING, mGesture.getState());
+        assertEquals(SwipeGesture.RELEASE_CANCEL, mGesture.release(500 + SLOP, 0, 0));
+    }
+
+    @Test
+    public void mostlyVerticalMoveIsNotASwipe() {
+        assertFalse(mGesture.move(530, 70));
+        assertFalse(mGesture.isSwiping());
+    }
+
+    @Test
+    public void moveBeyondSlopStartsSwipe() {
+        assertTrue(mGesture.move(530, 55));
+        assertTrue(mGesture.isSwiping());
+        // Only the move that crosses the slop reports the start
+        assertFalse(mGesture.move(560, 55));
+    }
+
+    @Test
+    public void releaseBeyondHalfWidthDismissesInDragDirection() {
+        mGesture.move(500 + WIDTH / 2 + 1, 50);
+        assertEquals(SwipeGesture.RELEASE_DISMISS_RIGHT, mGesture.release(500 + WIDTH / 2 + 1, 0, 0));
+
+        mGesture.down(900, 50, 0);
+        mGesture.move(900 - WIDTH / 2 - 1, 50);
+        assertEquals(SwipeGesture.RELEASE_DISMISS_LEFT, mGesture.release(900 - WIDTH / 2 - 1, 0, 0));
+    }
+
+    @Test
+    public void slowReleaseShortOfHalfWidthCancels() {
+        mGesture.move(500 + WIDTH / 2, 50);
+        assertEquals(SwipeGesture.RELEASE_CANCEL, mGesture.release(500 + WIDTH / 2, MIN_FLING - 1, 0));
+        assertEquals(SwipeGesture.STATE_IDLE, mGesture.getState());
+    }
+
+    @Test
+    public void flingDismissesInDragDirection() {
+        mGesture.move(600, 50);
+        assertEquals(SwipeGesture.RELEASE_DISMISS_RIGHT, mGesture.release(600, MIN_FLING, 0));
+
+        mGesture.down(500, 50, 0);
+        mGesture.move(400, 50);
+        assertEquals(SwipeGesture.RELEASE_DISMISS_LEFT, mGesture.release(400, -MAX_FLING, 0));
+    }
+
+    @Test
+    public void flingAgainstDragDirectionCancels() {
+        mGesture.move(600, 50);
+        assertEquals(SwipeGesture.RELEASE_CANCEL, mGesture.release(600, -2000, 0));
+    }
+
+    @Test
+    public void flingOutsideVelocityRangeCancels() {
+        mGesture.move(600, 50);
+        assertEquals(SwipeGesture.RELEASE_CANCEL, mGesture.release(600, MAX_FLING + 1, 0));
+    }
+
+    @Test
+    public void mostlyVerticalFlingCancels() {
+        mGesture.move(600, 50);
+        assertEquals(SwipeGesture.RELEASE_CANCEL, mGesture.release(600, 2000, 2000));
+    }
+
+    @Test
+    public void cancelStopsTracking() {
+        mGesture.move(600, 50);
+        mGesture.cancel();
+        assertEquals(SwipeGesture.STATE_IDLE, mGesture.getState());
+        assertFalse(mGesture.move(900, 50));
+        assertEquals(SwipeGesture.RELEASE_CANCEL, mGesture.release(900, 2000, 0));
+    }
+
+    @Test
+    public void projectedReleaseDecidesWithLandingPoint() {
+        mGesture.move(800, 50);
+        // 300px dragged plus 250ms at 1000px/s lands past half the width
+        assertEquals(SwipeGesture.RELEASE_DISMISS_RIGHT,
+                mGesture.releaseProjected(800, 1000, 2000, 250));
+    }
+}
@@ -0,0 +1,116 @@
+package com.hudomju.swipe.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimerWheelTest {
+
+    private static final long TICK = 10;
+    private static final int SLOTS = 8;
+    private static final long ROTATION = TICK * SLOTS;
+
+    private TimerWheel mWheel;
+
+    @Before
+    public void setUp() {
+        mWheel = new TimerWheel(TICK, SLOTS);
+    }
+
+    @Test
+    public void expiresOnlyPassedDeadlines() {
+        mWheel.schedule(1, 15);
+        mWheel.schedule(2, 25);
+        assertEquals(1, mWheel.expire(20));
+        assertEquals(1, mWheel.getExpiredId(0));
+        assertEquals(1, mWheel.size());
+        assertEquals(1, mWheel.expire(25));
+        assertEquals(2, mWheel.getExpiredId(0));
+        assertTrue(mWheel.isEmpty());
+    }
+
+    @Test
+    public void expiresAcrossWrap() {
+        mWheel.expire(ROTATION - 2 * TICK);
+        mWheel.schedule(1, ROTATION - 5);
+        mWheel.schedule(2, ROTATION + 5);
+        mWheel.schedule(3, ROTATION + 3 * TICK);
+        assertEquals(ROTATION - 5, mWheel.nextDeadline());
+        assertEquals(2, mWheel.expire(ROTATION + 5));
+        assertEquals(set(1, 2), expiredIds(2));
+        assertEquals(ROTATION + 3 * TICK, mWheel.nextDeadline());
+        assertEquals(1, mWheel.expire(ROTATION + 3 * TICK));
+        assertEquals(3, mWheel.getExpiredId(0));
+    }
+
+    @Test
+    public void timerBeyondOneRotationWaitsForLaterRotations() {
+        // Both land in slot 0, three rotations apart
+        mWheel.schedule(1, 5);
+        mWheel.schedule(2, 3 * ROTATION + 5);
+        assertEquals(1, mWheel.expire(TICK));
+        assertEquals(1, mWheel.getExpiredId(0));
+        assertEquals(3 * ROTATION + 5, mWheel.nextDeadline());
+        assertEquals(0, mWheel.expire(ROTATION + 5));
+        assertEquals(0, mWheel.expire(3 * ROTATION + 4));
+        assertEquals(1, mWheel.expire(3 * ROTATION + 5));
+        assertEquals(2, mWheel.getExpiredId(0));
+    }
+
+    @Test
+    public void gapLongerThanRotationExpiresEverythingDue() {
+        mWheel.schedule(1, 15);
+        mWheel.schedule(2, ROTATION + 15);
+        mWheel.schedule(3, 2 * ROTATION + 35);
+        mWheel.schedule(4, 10 * ROTATION);
+        assertEquals(3, mWheel.expire(5 * ROTATION));
+        assertEquals(set(1, 2, 3), expiredIds(3));
+        assertEquals(10 * ROTATION, mWheel.nextDeadline());
+    }
+
+    @Test
+    public void cancelledTimerDoesNotExpire() {
+        mWheel.schedule(1, 15);
+        mWheel.schedule(2, 15);
+        assertTrue(mWheel.cancel(1));
+        assertFalse(mWheel.cancel(1));
+        assertEquals(1, mWheel.expire(20));
+        assertEquals(2, mWheel.getExpiredId(0));
+    }
+
+    @Test
+    public void reschedulingMovesTheDeadline() {
+        mWheel.schedule(1, 15);
+        mWheel.schedule(1, 55);
+        assertEquals(1, mWheel.size());
+        assertEquals(0, mWheel.expire(20));
+        assertEquals(1, mWheel.expire(60));
+    }
+
+    @Test
+    public void emptyWheelHasNoDeadline() {
+        assertEquals(TimerWheel.NO_DEADLINE, mWheel.nextDeadline());
+        mWheel.schedule(1, 15);
+        mWheel.clear();
+        assertEquals(TimerWheel.NO_DEADLINE, mWheel.nextDeadline());
+        assertEquals(0, mWheel.expire(100));
+    }
+
+    private String expiredIds(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = mWheel.getExpiredId(i);
+        }
+        Arrays.sort(ids);
+        return Arrays.toString(ids);
+    }
+
+    private static String set(long... ids) {
+        return Arrays.toString(ids);
+    }
+}
@@ -0,0 +1,149 @@
+package com.hudomju.swipe.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays the swipes in {@code swipe_gestures.csv}, one {@code gesture,timeMillis,rawX} sample
+ * per line, through a {@link TouchPredictor} and compares its predictions with where the finger
+ * actually was that much later.
+ */
+public class TouchPredictorTest {
+
+    private static final String GESTURES = "swipe_gestures.csv";
+    private static final long PREDICTION_MILLIS = 16;
+    private static final double MAX_AVERAGE_ERROR = 10;
+    private static final double MAX_ERROR = 60;
+
+    private List<Gesture> mGestures;
+
+    @Before
+    public void setUp() throws IOException {
+        mGestures = readGestures(GESTURES);
+    }
+
+    @Test
+    public void predictionStaysCloseToFinger() {
+        Error error = replay(TouchPredictor.DEFAULT_DAMPING);
+        assertTrue("average error " + error.average(), error.average() < MAX_AVERAGE_ERROR);
+        assertTrue("max error " + error.max, error.max < MAX_ERROR);
+    }
+
+    @Test
+    public void predictionLagsLessThanLastPosition() {
+        double predicted = replay(TouchPredictor.DEFAULT_DAMPING).average();
+        double unpredicted = replay(-1).average();
+        assertTrue(predicted + " px predicted, " + unpredicted + " px not predicted",
+                predicted < unpredicted / 2);
+    }
+
+    @Test
+    public void restingFingerIsNotMoved() {
+        TouchPredictor predictor = new TouchPredictor();
+        for (int i = 0; i < 10; i++) {
+            predictor.addSample(300, i * 8);
+        }
+        assertEquals(300, predictor.predictX(PREDICTION_MILLIS), 0);
+    }
+
+    /**
+     * @param damping The damping of the predictor, or a negative value not to predict.
+     */
+    private Error replay(float damping) {
+        Error error = new Error();
+        for (Gesture gesture : mGestures) {
+            TouchPredictor predictor = damping >= 0 ? new TouchPredictor(damping) : null;
+            long endTime = gesture.times[gesture.size - 1];
+            for (int i = 0; i < gesture.size; i++) {
+                float predicted = gesture.xs[i];
+                if (predictor != null) {
+                    predictor.addSample(gesture.xs[i], gesture.times[i]);
+                    predicted = predictor.predictX(PREDICTION_MILLIS);
+                }
+                long targetTime = gesture.times[i] + PREDICTION_MILLIS;
+                if (targetTime > endTime) break;
+                error.add(Math.abs(predicted - gesture.xAt(targetTime)));
+            }
+        }
+        return error;
+    }
+
+    private static List<Gesture> readGestures(String resource) throws IOException {
+        Map<String, Gesture> gestures = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                TouchPredictorTest.class.getResourceAsStream(resource), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) continue;
+                String[] fields = line.split(",");
+                Gesture gesture = gestures.get(fields[0]);
+                if (gesture == null) {
+                    gesture = new Gesture();
+                    gestures.put(fields[0], gesture);
+                }
+                gesture.add(Long.parseLong(fields[1]), Float.parseFloat(fields[2]));
+            }
+        } finally {
+            reader.close();
+        }
+        return new ArrayList<>(gestures.values());
+    }
+
+    private static final class Error {
+        double sum;
+        double max;
+        int count;
+
+        void add(double error) {
+            sum += error;
+            max = Math.max(max, error);
+            count++;
+        }
+
+        double average() {
+            return sum / count;
+        }
+    }
+
+    private static final class Gesture {
+        long[] times = new long[64];
+        float[] xs = new float[64];
+        int size;
+
+        void add(long time, float x) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                xs = Arrays.copyOf(xs, size * 2);
+            }
+            times[size] = time;
+            xs[size] = x;
+            size++;
+        }
+
+        /**
+         * @return the finger position at the given time, interpolated between samples.
+         */
+        float xAt(long time) {
+            for (int i = 1; i < size; i++) {
+                if (times[i] >= time) {
+                    float fraction = (float) (time - times[i - 1]) / (times[i] - times[i - 1]);
+                    return xs[i - 1] + fraction * (xs[i] - xs[i - 1]);
+                }
+            }
+            return xs[size - 1];
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.hudomju.swipe.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class VelocityEstimatorTest {
+
+    private static final float DELTA = 0.5f;
+
+    private VelocityEstimator mEstimator;
+
+    @Before
+    public void setUp() {
+        mEstimator = new VelocityEstimator(20);
+    }
+
+    @Test
+    public void fitsConstantVelocity() {
+        for (long time = 0; time <= 80; time += 8) {
+            mEstimator.addSample(100 + 1.5f * time, 300 - 0.5f * time, time);
+        }
+        assertEquals(1500, mEstimator.getVelocityX(), DELTA);
+        assertEquals(-500, mEstimator.getVelocityY(), DELTA);
+    }
+
+    @Test
+    public void needsTwoSamples() {
+        assertEquals(0, mEstimator.getVelocityX(), 0);
+        mEstimator.addSample(100, 100, 0);
+        assertEquals(0, mEstimator.getVelocityX(), 0);
+    }
+
+    @Test
+    public void ignoresSamplesBeyondHorizon() {
+        // 1000px/s for the first 100ms, then 3000px/s up to 200ms, sampled every 10ms
+        for (long time = 0; time <= 200; time += 10) {
+            float x = time <= 100 ? time : 100 + 3 * (time - 100);
+            mEstimator.addSample(x, 0, time);
+        }
+        assertEquals(3000, mEstimator.getVelocityX(), DELTA);
+    }
+
+    @Test
+    public void pauseMeansFingerStopped() {
+        for (long time = 0; time <= 80; time += 8) {
+            mEstimator.addSample(2 * time, 0, time);
+        }
+        // Resting for longer than 40ms leaves only the samples after the pause
+        mEstimator.addSample(160, 0, 130);
+        mEstimator.addSample(160, 0, 138);
+        assertEquals(0, mEstimator.getVelocityX(), 0);
+    }
+
+    @Test
+    public void keepsOnlyCapacitySamples() {
+        VelocityEstimator estimator = new VelocityEstimator(3);
+        for (long time = 0; time <= 80; time += 8) {
+            estimator.addSample(time <= 56 ? -time : -56 + 2 * (time - 56), 0, time);
+        }
+        assertEquals(2000, estimator.getVelocityX(), DELTA);
+    }
+
+    @Test
+    public void clearForgetsSamples() {
+        mEstimator.addSample(0, 0, 0);
+        mEstimator.addSample(10, 0, 10);
+        mEstimator.clear();
+        mEstimator.addSample(50, 0, 20);
+        assertEquals(0, mEstimator.getVelocityX(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCapacityBelowTwo() {
+        new VelocityEstimator(1);
+    }
+}
@@ -0,0 +1,123 @@
+package com.hudomju.swipe;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Commits dismissed items away from the UI thread, e.g. deleting them from a database. Items
+ * enqueued within a configurable window are coalesced and handed to a {@link Sink} as one bulk
+ * operation on a background {@link Executor}. The outcome is posted back to the UI thread.
+ *
+ * <p>Set it on a {@link SwipeToDismissTouchListener} with
+ * {@link SwipeToDismissTouchListener#setCommitPipeline(CommitPipeline)}, which enqueues the stable
+ * ids of the dismissed items after the dismiss callbacks have removed them from the list. The
+ * adapter must have stable ids.</p>
+ */
+public class CommitPipeline {
+
+    private static final long DEFAULT_COALESCE_WINDOW_MILLIS = 500;
+
+    /**
+     * Performs the actual commit of a batch of items. Called on the background executor.
+     */
+    public interface Sink {
+        void commit(long[] itemIds) throws Exception;
+    }
+
+    /**
+     * Informed on the UI thread about the outcome of every batch.
+     */
+    public interface Callback {
+        void onCommitted(long[] itemIds);
+
+        void onCommitFailed(long[] itemIds, Exception e);
+    }
+
+    private final Executor mExecutor;
+    private final Sink mSink;
+    private final Callback mCallback;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+    private long mCoalesceWindowMillis = DEFAULT_COALESCE_WINDOW_MILLIS;
+    private long[] mItemIds = new long[16];
+    private int mItemCount;
+
+    /**
+     * @param executor The executor running the sink.
+     * @param sink Commits the batches.
+     * @param callback Informed about the outcome of every batch, may be null.
+     */
+    public CommitPipeline(Executor executor, Sink sink, Callback callback) {
+        mExecutor = executor;
+        mSink = sink;
+        mCallback = callback;
+    }
+
+    /**
+     * Set how long to wait for more items after the first item of a batch has been enqueued.
+     * @param coalesceWindowMillis The delay in milliseconds, 0 to commit every item right away.
+     */
+    public void setCoalesceWindow(long coalesceWindowMillis) {
+        this.mCoalesceWindowMillis = coalesceWindowMillis;
+    }
+
+    /**
+     * Adds an item to the current batch. Must be called on the UI thread.
+     */
+    public void enqueue(long itemId) {
+        if (mItemCount == mItemIds.length) {
+            long[] itemIds = new long[mItemIds.length * 2];
+            System.arraycopy(mItemIds, 0, itemIds, 0, mItemCount);
+            mItemIds = itemIds;
+        }
+        mItemIds[mItemCount++] = itemId;
+        if (mItemCount == 1) {
+            mMainHandler.postDelayed(mFlushRunnable, mCoalesceWindowMillis);
+        }
+    }
+
+    /**
+     * Hands the current batch to the sink without waiting for the coalesce window to end, e.g.
+     * when the screen is going away. Must be called on the UI thread.
+     */
+    public void flush() {
+        mMainHandler.removeCallbacks(mFlushRunnable);
+        if (mItemCount == 0) return;
+        final long[] itemIds = new long[mItemCount];
+        System.arraycopy(mItemIds, 0, itemIds, 0, mItemCount);
+        mItemCount = 0;
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Exception error = null;
+                try {
+                    mSink.commit(itemIds);
+                } catch (Exception e) {
+                    error = e;
+                }
+                postResult(itemIds, error);
+            }
+        });
+    }
+
+    private void postResult(final long[] itemIds, final Exception error) {
+        if (mCallback == null) return;
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (error == null) {
+                    mCallback.onCommitted(itemIds);
+                } else {
+                    mCallback.onCommitFailed(itemIds, error);
+                }
+            }
+        });
+    }
+}
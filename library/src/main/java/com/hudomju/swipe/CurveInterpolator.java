@@ -0,0 +1,29 @@
+package com.hudomju.swipe;
+
+import android.animation.TimeInterpolator;
+
+import com.hudomju.swipe.core.MotionCurve;
+
+/**
+ * Follows a {@link MotionCurve} over an animation lasting the duration of the curve.
+ */
+final class CurveInterpolator implements TimeInterpolator {
+
+    private final MotionCurve mCurve;
+
+    /**
+     * @param curve A started curve, not to be restarted while animating.
+     */
+    CurveInterpolator(MotionCurve curve) {
+        mCurve = curve;
+    }
+
+    MotionCurve getCurve() {
+        return mCurve;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        return input >= 1 ? 1 : mCurve.fractionAt(input * mCurve.getDurationMillis());
+    }
+}
@@ -0,0 +1,68 @@
+package com.hudomju.swipe;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+/**
+ * Counts the frames drawn between {@link #start()} and {@link #stop()}, and how many frames were
+ * skipped in between, using {@link Choreographer} frame callbacks.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+final class FrameCounter implements Choreographer.FrameCallback {
+
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 16666667;
+
+    private final Choreographer mChoreographer = Choreographer.getInstance();
+    private long mFrameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+    private long mLastFrameTimeNanos;
+    private int mFrameCount;
+    private int mDroppedFrameCount;
+    private boolean mRunning;
+
+    void start() {
+        if (mRunning) return;
+        mRunning = true;
+        mLastFrameTimeNanos = 0;
+        mFrameCount = 0;
+        mDroppedFrameCount = 0;
+        mChoreographer.postFrameCallback(this);
+    }
+
+    /**
+     * @return whether the counter was running.
+     */
+    boolean stop() {
+        if (!mRunning) return false;
+        mRunning = false;
+        mChoreographer.removeFrameCallback(this);
+        return true;
+    }
+
+    int getFrameCount() {
+        return mFrameCount;
+    }
+
+    int getDroppedFrameCount() {
+        return mDroppedFrameCount;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning) return;
+        if (mLastFrameTimeNanos != 0) {
+            long intervalNanos = frameTimeNanos - mLastFrameTimeNanos;
+            // The shortest interval seen is the best guess of the display refresh period
+            if (intervalNanos > 0 && intervalNanos < mFrameIntervalNanos) {
+                mFrameIntervalNanos = intervalNanos;
+            }
+            if (intervalNanos > mFrameIntervalNanos * 3 / 2) {
+                mDroppedFrameCount += (int) ((intervalNanos + mFrameIntervalNanos / 2)
+                        / mFrameIntervalNanos) - 1;
+            }
+        }
+        mFrameCount++;
+        mLastFrameTimeNanos = frameTimeNanos;
+        mChoreographer.postFrameCallback(this);
+    }
+}
@@ -0,0 +1,368 @@
+package com.hudomju.swipe;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.TimeAnimator;
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+import android.annotation.TargetApi;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.os.Build;
+import android.provider.Settings;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.AnimationUtils;
+
+import java.util.Arrays;
+
+/**
+ * Runs every row animation of a {@link SwipeToDismissTouchListener} from a single frame pulse.
+ * The animations are kept as records in parallel arrays that are reused, and their end is
+ * reported to one {@link Callback} with an action code and arguments, so animating a row
+ * allocates nothing once the arrays have grown.
+ *
+ * <p>Starting an animation on a view takes the animated properties away from the animations
+ * already running on it, like {@link android.view.ViewPropertyAnimator} does. An animation left
+ * with nothing to animate ends right away.</p>
+ *
+ * <p>Durations are scaled by the system animator duration scale. When animations are turned off
+ * every animation jumps to its end on the next frame.</p>
+ */
+final class RowAnimator implements ValueAnimator.AnimatorUpdateListener {
+
+    static final int TRANSLATION_X = 1;
+    static final int TRANSLATION_Y = 1 << 1;
+    static final int ALPHA = 1 << 2;
+    static final int HEIGHT = 1 << 3;
+    private static final int PROPERTY_COUNT = 4;
+    private static final int ALL_PROPERTIES = (1 << PROPERTY_COUNT) - 1;
+    /** Not a property: renders the view into a hardware layer while animating. */
+    private static final int LAYER = 1 << PROPERTY_COUNT;
+
+    static final int NO_ACTION = 0;
+
+    interface Callback {
+        /**
+         * Called when an animation ends, or is interrupted by another one.
+         */
+        void onRowAnimationEnd(int action, View view, Object arg, int intArg, long longArg);
+    }
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final Callback mCallback;
+    private final ContentResolver mContentResolver;
+    private final Animator mPulse;
+    private boolean mPulseRunning;
+    private boolean mPulseStarting;
+    private float mDurationScale = 1;
+
+    private int mCount;
+    private View[] mViews = new View[INITIAL_CAPACITY];
+    private int[] mProperties = new int[INITIAL_CAPACITY];
+    private float[] mFrom = new float[INITIAL_CAPACITY * PROPERTY_COUNT];
+    private float[] mTo = new float[INITIAL_CAPACITY * PROPERTY_COUNT];
+    private long[] mStartTimes = new long[INITIAL_CAPACITY];
+    private long[] mDurations = new long[INITIAL_CAPACITY];
+    private TimeInterpolator[] mInterpolators = new TimeInterpolator[INITIAL_CAPACITY];
+    private int[] mPreviousLayerTypes = new int[INITIAL_CAPACITY];
+    private int[] mActions = new int[INITIAL_CAPACITY];
+    private Object[] mArgs = new Object[INITIAL_CAPACITY];
+    private int[] mIntArgs = new int[INITIAL_CAPACITY];
+    private long[] mLongArgs = new long[INITIAL_CAPACITY];
+
+    // Animations that ended during a frame, reported once the frame is done
+    private int mEndedCount;
+    private int[] mEndedActions = new int[INITIAL_CAPACITY];
+    private View[] mEndedViews = new View[INITIAL_CAPACITY];
+    private Object[] mEndedArgs = new Object[INITIAL_CAPACITY];
+    private int[] mEndedIntArgs = new int[INITIAL_CAPACITY];
+    private long[] mEndedLongArgs = new long[INITIAL_CAPACITY];
+
+    RowAnimator(Context context, Callback callback) {
+        mCallback = callback;
+        mContentResolver = context.getContentResolver();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            // Unlike a repeating ValueAnimator, it keeps running when animations are turned off
+            mPulse = TimePulse.create(this);
+        } else {
+            ValueAnimator pulse = ValueAnimator.ofFloat(0, 1);
+            pulse.setDuration(1000);
+            pulse.setRepeatCount(ValueAnimator.INFINITE);
+            pulse.addUpdateListener(this);
+            mPulse = pulse;
+        }
+        mPulse.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                // Also when ended from outside, so the next animation starts it again
+                mPulseRunning = false;
+            }
+        });
+    }
+
+    /**
+     * Adds an animation, to be completed with the setters below before returning to the looper.
+     *
+     * @param view The animated view, or null for an animation that only reports its end.
+     * @return the animation, valid until returning to the looper.
+     */
+    int animate(View view, long durationMillis, TimeInterpolator interpolator) {
+        if (!mPulseRunning) {
+            mDurationScale = readDurationScale();
+        }
+        if (mCount == mViews.length) grow();
+        int animation = mCount++;
+        mViews[animation] = view;
+        mProperties[animation] = 0;
+        mStartTimes[animation] = AnimationUtils.currentAnimationTimeMillis();
+        mDurations[animation] = Math.max(0, (long) (durationMillis * mDurationScale));
+        mInterpolators[animation] = interpolator;
+        mActions[animation] = NO_ACTION;
+        mArgs[animation] = null;
+        if (!mPulseRunning) {
+            // Starting may run a first frame right away, before the animation is set up
+            mPulseRunning = true;
+            mPulseStarting = true;
+            mPulse.start();
+            mPulseStarting = false;
+        }
+        return animation;
+    }
+
+    void translationX(int animation, float to) {
+        set(animation, TRANSLATION_X, mViews[animation].getTranslationX(), to);
+    }
+
+    void translationY(int animation, float from, float to) {
+        set(animation, TRANSLATION_Y, from, to);
+    }
+
+    void alpha(int animation, float to) {
+        set(animation, ALPHA, mViews[animation].getAlpha(), to);
+    }
+
+    void height(int animation, int from, int to) {
+        set(animation, HEIGHT, from, to);
+    }
+
+    void withLayer(int animation) {
+        View view = mViews[animation];
+        mPreviousLayerTypes[animation] = view.getLayerType();
+        for (int i = 0; i < mCount; i++) {
+            if (i != animation && mViews[i] == view && (mProperties[i] & LAYER) != 0) {
+                // Take the layer over, so it is released only once and to the right type
+                mPreviousLayerTypes[animation] = mPreviousLayerTypes[i];
+                mProperties[i] &= ~LAYER;
+            }
+        }
+        mProperties[animation] |= LAYER;
+        view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+    }
+
+    void endAction(int animation, int action, Object arg, int intArg, long longArg) {
+        mActions[animation] = action;
+        mArgs[animation] = arg;
+        mIntArgs[animation] = intArg;
+        mLongArgs[animation] = longArg;
+    }
+
+    /**
+     * @return whether a running animation uses the given interpolator.
+     */
+    boolean isAnimatingWith(TimeInterpolator interpolator) {
+        for (int i = 0; i < mCount; i++) {
+            if (mInterpolators[i] == interpolator) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Jumps the animations of a view to their end and lets go of the view, e.g. once it has been
+     * recycled to show another item. Their end is still reported, with a null view.
+     */
+    void detach(View view) {
+        for (int i = 0; i < mCount; i++) {
+            if (mViews[i] != view) continue;
+            apply(i, 1);
+            if ((mProperties[i] & LAYER) != 0) {
+                view.setLayerType(mPreviousLayerTypes[i], null);
+            }
+            mProperties[i] = 0;
+            mViews[i] = null;
+        }
+    }
+
+    private void set(int animation, int property, float from, float to) {
+        View view = mViews[animation];
+        // Take the property away from the other animations of the view
+        for (int i = 0; i < mCount; i++) {
+            if (i != animation && mViews[i] == view && (mProperties[i] & property) != 0) {
+                mProperties[i] &= ~property;
+                if ((mProperties[i] & ALL_PROPERTIES) == 0) {
+                    // Nothing left to animate, it ends by the next frame
+                    mDurations[i] = 0;
+                }
+            }
+        }
+        int index = animation * PROPERTY_COUNT + Integer.numberOfTrailingZeros(property);
+        mFrom[index] = from;
+        mTo[index] = to;
+        mProperties[animation] |= property;
+    }
+
+    private float readDurationScale() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR1) return 1;
+        return Settings.Global.getFloat(mContentResolver,
+                Settings.Global.ANIMATOR_DURATION_SCALE, 1);
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator pulse) {
+        onFrame();
+    }
+
+    private void onFrame() {
+        if (mPulseStarting) return;
+        long now = AnimationUtils.currentAnimationTimeMillis();
+        int i = 0;
+        while (i < mCount) {
+            long elapsed = now - mStartTimes[i];
+            boolean ended = elapsed >= mDurations[i];
+            float fraction = ended ? 1 : (float) elapsed / mDurations[i];
+            if (mInterpolators[i] != null) fraction = mInterpolators[i].getInterpolation(fraction);
+            apply(i, fraction);
+            if (ended) {
+                end(i);
+            } else {
+                i++;
+            }
+        }
+        if (mCount == 0) {
+            mPulse.cancel();
+            mPulseRunning = false;
+        }
+        // Reported last, as ending an animation often starts another one
+        int endedCount = mEndedCount;
+        mEndedCount = 0;
+        for (int j = 0; j < endedCount; j++) {
+            View view = mEndedViews[j];
+            Object arg = mEndedArgs[j];
+            mEndedViews[j] = null;
+            mEndedArgs[j] = null;
+            mCallback.onRowAnimationEnd(mEndedActions[j], view, arg, mEndedIntArgs[j],
+                    mEndedLongArgs[j]);
+        }
+    }
+
+    private void apply(int animation, float fraction) {
+        View view = mViews[animation];
+        int properties = mProperties[animation];
+        if (view == null || (properties & ALL_PROPERTIES) == 0) return;
+        int base = animation * PROPERTY_COUNT;
+        if ((properties & TRANSLATION_X) != 0) {
+            view.setTranslationX(value(base, TRANSLATION_X, fraction));
+        }
+        if ((properties & TRANSLATION_Y) != 0) {
+            view.setTranslationY(value(base, TRANSLATION_Y, fraction));
+        }
+        if ((properties & ALPHA) != 0) {
+            view.setAlpha(value(base, ALPHA, fraction));
+        }
+        if ((properties & HEIGHT) != 0) {
+            ViewGroup.LayoutParams lp = view.getLayoutParams();
+            lp.height = (int) value(base, HEIGHT, fraction);
+            view.setLayoutParams(lp);
+        }
+    }
+
+    private float value(int base, int property, float fraction) {
+        int index = base + Integer.numberOfTrailingZeros(property);
+        return mFrom[index] + (mTo[index] - mFrom[index]) * fraction;
+    }
+
+    /**
+     * Removes an animation, moving the last one in its place, and queues its end to be reported.
+     */
+    private void end(int animation) {
+        if ((mProperties[animation] & LAYER) != 0) {
+            mViews[animation].setLayerType(mPreviousLayerTypes[animation], null);
+        }
+        if (mActions[animation] != NO_ACTION) {
+            if (mEndedCount == mEndedActions.length) growEnded();
+            mEndedActions[mEndedCount] = mActions[animation];
+            mEndedViews[mEndedCount] = mViews[animation];
+            mEndedArgs[mEndedCount] = mArgs[animation];
+            mEndedIntArgs[mEndedCount] = mIntArgs[animation];
+            mEndedLongArgs[mEndedCount] = mLongArgs[animation];
+            mEndedCount++;
+        }
+        int last = --mCount;
+        if (animation != last) {
+            mViews[animation] = mViews[last];
+            mProperties[animation] = mProperties[last];
+            System.arraycopy(mFrom, last * PROPERTY_COUNT, mFrom, animation * PROPERTY_COUNT,
+                    PROPERTY_COUNT);
+            System.arraycopy(mTo, last * PROPERTY_COUNT, mTo, animation * PROPERTY_COUNT,
+                    PROPERTY_COUNT);
+            mStartTimes[animation] = mStartTimes[last];
+            mDurations[animation] = mDurations[last];
+            mInterpolators[animation] = mInterpolators[last];
+            mPreviousLayerTypes[animation] = mPreviousLayerTypes[last];
+            mActions[animation] = mActions[last];
+            mArgs[animation] = mArgs[last];
+            mIntArgs[animation] = mIntArgs[last];
+            mLongArgs[animation] = mLongArgs[last];
+        }
+        mViews[last] = null;
+        mInterpolators[last] = null;
+        mArgs[last] = null;
+    }
+
+    private void grow() {
+        int capacity = mViews.length * 2;
+        mViews = Arrays.copyOf(mViews, capacity);
+        mProperties = Arrays.copyOf(mProperties, capacity);
+        mFrom = Arrays.copyOf(mFrom, capacity * PROPERTY_COUNT);
+        mTo = Arrays.copyOf(mTo, capacity * PROPERTY_COUNT);
+        mStartTimes = Arrays.copyOf(mStartTimes, capacity);
+        mDurations = Arrays.copyOf(mDurations, capacity);
+        mInterpolators = Arrays.copyOf(mInterpolators, capacity);
+        mPreviousLayerTypes = Arrays.copyOf(mPreviousLayerTypes, capacity);
+        mActions = Arrays.copyOf(mActions, capacity);
+        mArgs = Arrays.copyOf(mArgs, capacity);
+        mIntArgs = Arrays.copyOf(mIntArgs, capacity);
+        mLongArgs = Arrays.copyOf(mLongArgs, capacity);
+    }
+
+    private void growEnded() {
+        int capacity = mEndedActions.length * 2;
+        mEndedActions = Arrays.copyOf(mEndedActions, capacity);
+        mEndedViews = Arrays.copyOf(mEndedViews, capacity);
+        mEndedArgs = Arrays.copyOf(mEndedArgs, capacity);
+        mEndedIntArgs = Arrays.copyOf(mEndedIntArgs, capacity);
+        mEndedLongArgs = Arrays.copyOf(mEndedLongArgs, capacity);
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static final class TimePulse implements TimeAnimator.TimeListener {
+
+        private final RowAnimator mRowAnimator;
+
+        private TimePulse(RowAnimator rowAnimator) {
+            mRowAnimator = rowAnimator;
+        }
+
+        static Animator create(RowAnimator rowAnimator) {
+            TimeAnimator pulse = new TimeAnimator();
+            pulse.setTimeListener(new TimePulse(rowAnimator));
+            return pulse;
+        }
+
+        @Override
+        public void onTimeUpdate(TimeAnimator animation, long totalTime, long deltaTime) {
+            mRowAnimator.onFrame();
+        }
+    }
+}
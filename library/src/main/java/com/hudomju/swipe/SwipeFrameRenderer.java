@@ -0,0 +1,110 @@
+package com.hudomju.swipe;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+import android.view.View;
+
+import com.hudomju.swipe.core.SwipeGesture;
+
+/**
+ * Applies the position of a swiping row once per frame instead of once per touch event. The
+ * finger positions received in between are kept, and each {@link Choreographer} frame shows the
+ * latest one that is not newer than the frame time.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+final class SwipeFrameRenderer implements Choreographer.FrameCallback {
+
+    private static final int MAX_SAMPLES = 16;
+    private static final long NANOS_PER_MILLI = 1000000;
+
+    private final Choreographer mChoreographer = Choreographer.getInstance();
+    private final SwipeGesture mGesture;
+    private final long[] mSampleTimes = new long[MAX_SAMPLES];
+    private final float[] mSampleXs = new float[MAX_SAMPLES];
+    private int mFirstSample;
+    private int mSampleCount;
+    private View mView;
+    private boolean mFramePosted;
+
+    SwipeFrameRenderer(SwipeGesture gesture) {
+        mGesture = gesture;
+    }
+
+    /**
+     * Starts rendering the given swiping view.
+     */
+    void begin(View view) {
+        mView = view;
+        mFirstSample = 0;
+        mSampleCount = 0;
+    }
+
+    boolean isRendering() {
+        return mView != null;
+    }
+
+    /**
+     * Records a raw finger position, to be shown by the next frame at the latest.
+     */
+    void addSample(long timeMillis, float rawX) {
+        if (mView == null) return;
+        if (mSampleCount == MAX_SAMPLES) {
+            // Too many samples for one frame, the oldest one would never be shown
+            mFirstSample = (mFirstSample + 1) % MAX_SAMPLES;
+            mSampleCount--;
+        }
+        int index = (mFirstSample + mSampleCount) % MAX_SAMPLES;
+        mSampleTimes[index] = timeMillis;
+        mSampleXs[index] = rawX;
+        mSampleCount++;
+        if (!mFramePosted) {
+            mFramePosted = true;
+            mChoreographer.postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Shows the latest finger position right away and stops rendering, so the release animation
+     * starts from where the finger was lifted.
+     */
+    void finish() {
+        if (mView == null) return;
+        if (mSampleCount > 0) {
+            apply((mFirstSample + mSampleCount - 1) % MAX_SAMPLES);
+        }
+        if (mFramePosted) {
+            mFramePosted = false;
+            mChoreographer.removeFrameCallback(this);
+        }
+        mView = null;
+        mSampleCount = 0;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mFramePosted = false;
+        if (mView == null || mSampleCount == 0) return;
+        long frameTimeMillis = frameTimeNanos / NANOS_PER_MILLI;
+        // The latest sample not newer than the frame, or the oldest one if they all are
+        int shown = 0;
+        while (shown + 1 < mSampleCount
+                && mSampleTimes[(mFirstSample + shown + 1) % MAX_SAMPLES] <= frameTimeMillis) {
+            shown++;
+        }
+        int index = (mFirstSample + shown) % MAX_SAMPLES;
+        apply(index);
+        mFirstSample = (index + 1) % MAX_SAMPLES;
+        mSampleCount -= shown + 1;
+        if (mSampleCount > 0) {
+            mFramePosted = true;
+            mChoreographer.postFrameCallback(this);
+        }
+    }
+
+    private void apply(int index) {
+        float x = mSampleXs[index];
+        mView.setTranslationX(mGesture.translationForX(x));
+        mView.setAlpha(mGesture.alphaForX(x));
+    }
+}
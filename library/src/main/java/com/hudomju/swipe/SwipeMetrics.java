@@ -0,0 +1,55 @@
+package com.hudomju.swipe;
+
+/**
+ * Interface definition for callbacks reporting how the swipe-to-dismiss gestures of a
+ * {@link SwipeToDismissTouchListener} perform, e.g. to feed them into telemetry. All the values are
+ * primitives so reporting them doesn't allocate. Callbacks are invoked on the UI thread.
+ */
+public interface SwipeMetrics {
+
+    /**
+     * Called when a gesture has been recognised as a swipe.
+     *
+     * @param latencyMillis The time between the ACTION_DOWN event and the recognition.
+     */
+    void onSwipeRecognized(long latencyMillis);
+
+    /**
+     * Called when a swiped row shows its undo container.
+     *
+     * @param latencyMillis The time between the finger being lifted and
+     *                      {@link SwipeToDismissTouchListener.DismissCallbacks#onPendingDismiss}.
+     */
+    void onPendingDismiss(long latencyMillis);
+
+    /**
+     * Called when committed rows are gone from the layout.
+     *
+     * @param durationMillis The time between the commit and the end of the collapse.
+     * @param itemCount The number of rows collapsed together.
+     */
+    void onCollapse(long durationMillis, int itemCount);
+
+    /**
+     * Called when pending rows are restored.
+     *
+     * @param itemCount The number of rows restored.
+     */
+    void onUndo(int itemCount);
+
+    /**
+     * Called when pending rows are committed.
+     *
+     * @param itemCount The number of rows committed together.
+     */
+    void onCommit(int itemCount);
+
+    /**
+     * Called when a gesture ends, with the frames counted by {@link android.view.Choreographer}
+     * while it was in progress. Only reported on API level 16 or later.
+     *
+     * @param frameCount The number of frames drawn during the gesture.
+     * @param droppedFrameCount The number of frames that were skipped during the gesture.
+     */
+    void onGestureFrames(int frameCount, int droppedFrameCount);
+}
@@ -0,0 +1,55 @@
+package com.hudomju.swipe;
+
+import com.hudomju.swipe.core.LongIntHashMap;
+
+/**
+ * The swipe state of every item a {@link SwipeToDismissTouchListener} is tracking, keyed by stable
+ * item id. Items that are not tracked are {@link #STATE_IDLE}. Backed by a primitive map, so a
+ * lookup is O(1) and doesn't allocate, and thousands of items take a flat amount of memory.
+ *
+ * <p>Only maintained when the adapter has stable ids.</p>
+ */
+public final class SwipeStateStore {
+
+    /**
+     * The item is shown normally.
+     */
+    public static final int STATE_IDLE = 0;
+
+    /**
+     * The item was swiped away and its row shows the undo container.
+     */
+    public static final int STATE_PENDING_UNDO = 1;
+
+    /**
+     * The item is being committed: its row is collapsing and the item is about to be removed.
+     */
+    public static final int STATE_COMMITTING = 2;
+
+    private final LongIntHashMap mStates = new LongIntHashMap(16, STATE_IDLE);
+
+    SwipeStateStore() {
+    }
+
+    /**
+     * @return the swipe state of the item with the given stable id.
+     */
+    public int getState(long itemId) {
+        return mStates.get(itemId);
+    }
+
+    /**
+     * @return the number of items that are not idle.
+     */
+    public int size() {
+        return mStates.size();
+    }
+
+    void setState(long itemId, int state) {
+        if (state == STATE_IDLE) {
+            mStates.remove(itemId);
+        } else {
+            mStates.put(itemId, state);
+        }
+    }
+}
@@ -16,21 +16,43 @@
 
 package com.hudomju.swipe;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.ValueAnimator;
-import android.graphics.Rect;
+import android.animation.TimeInterpolator;
+import android.os.Build;
+import android.os.Debug;
 import android.os.Handler;
-import android.support.annotation.NonNull;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.ViewGroup;
+import android.view.ViewStub;
+import android.view.ViewTreeObserver;
+import android.view.animation.AccelerateDecelerateInterpolator;
 import android.widget.AbsListView;
 import android.widget.ListView;
 
+import com.hudomju.swipe.adapter.InterceptingViewAdapter;
+import com.hudomju.swipe.adapter.NotifyingViewAdapter;
+import com.hudomju.swipe.adapter.RecyclingViewAdapter;
 import com.hudomju.swipe.adapter.ViewAdapter;
+import com.hudomju.swipe.core.PendingDismiss;
+import com.hudomju.swipe.core.PendingDismissQueue;
+import com.hudomju.swipe.core.FlingCurve;
+import com.hudomju.swipe.core.LongIntHashMap;
+import com.hudomju.swipe.core.RemovedPositionIndex;
+import com.hudomju.swipe.core.SpringCurve;
+import com.hudomju.swipe.core.SwipeGesture;
+import com.hudomju.swipe.core.TimerWheel;
+import com.hudomju.swipe.core.TouchPredictor;
+import com.hudomju.swipe.core.VelocityEstimator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * A {@link android.view.View.OnTouchListener} that makes the list items in a collection view
@@ -52,15 +74,17 @@ import com.hudomju.swipe.adapter.ViewAdapter;
  * SwipeDismissRecyclerViewTouchListener touchListener =
  *         new SwipeDismissRecyclerViewTouchListener(
  *                 new RecyclerViewAdapter(recyclerView),
- *                 new SwipeDismissRecyclerViewTouchListener.OnDismissCallback() {
- *                     public void onDismiss(ListView listView, int[] reverseSortedPositions) {
+ *                 new SwipeToDismissTouchListener.BatchDismissCallbacks<RecyclerViewAdapter>() {
+ *                     ...
+ *                     public void onDismiss(RecyclerViewAdapter view, int[] reverseSortedPositions) {
  *                         for (int position : reverseSortedPositions) {
- *                             adapter.remove(adapter.getItem(position));
+ *                             adapter.remove(position);
  *                         }
  *                         adapter.notifyDataSetChanged();
  *                     }
  *                 });
- * recyclerView.setOnTouchListener(touchListener);
+ * touchListener.setMaxPendingDismisses(10);
+ * recyclerView.addOnItemTouchListener(touchListener.makeItemTouchListener());
  * recyclerView.setOnScrollListener(touchListener.makeScrollListener());
  * </pre>
  *
@@ -70,56 +94,269 @@ import com.hudomju.swipe.adapter.ViewAdapter;
 public class SwipeToDismissTouchListener<SomeCollectionView extends ViewAdapter> implements
         View.OnTouchListener {
 
-    // Cached ViewConfiguration and system-wide constant values
-    private final int mSlop;
-    private final int mMinFlingVelocity;
-    private final int mMaxFlingVelocity;
+    /**
+     * Dismissed rows shrink to zero height before being removed. This relayouts the list on every
+     * animation frame.
+     */
+    public static final int COLLAPSE_MODE_HEIGHT = 0;
+
+    /**
+     * Dismissed rows are removed in a single layout pass and the rows below them slide up into
+     * place using translationY, which only costs drawing work on each animation frame. Meant for
+     * {@link com.hudomju.swipe.adapter.ListViewAdapter}.
+     */
+    public static final int COLLAPSE_MODE_TRANSLATE = 1;
+
+    /**
+     * The library does not animate dismissed rows itself. Instead the collection view is notified
+     * about the removed positions and animates them on its own, e.g. with the
+     * {@link android.support.v7.widget.RecyclerView.ItemAnimator}. Requires a
+     * {@link NotifyingViewAdapter} such as {@link com.hudomju.swipe.adapter.RecyclerViewAdapter}
+     * and callbacks that only update the data set, without notifying the adapter.
+     */
+    public static final int COLLAPSE_MODE_ITEM_ANIMATOR = 2;
+
+    /**
+     * Pending rows are dismissed as soon as the scroll state of the list changes. This is the
+     * default.
+     */
+    public static final int COMMIT_POLICY_SCROLL = 0;
+
+    /**
+     * Pending rows are dismissed once the list has stopped scrolling and the main thread has no
+     * more work queued, so the collapse never competes with a starting fling. Rows stay pending,
+     * and can be undone, until then; automatic dismissals that come due while scrolling wait too.
+     */
+    public static final int COMMIT_POLICY_IDLE = 1;
+
+    /**
+     * Each row holds its data container and an undo container, which is shown once the data
+     * container has been swiped away. This is the default.
+     */
+    public static final int UNDO_MODE_CHILD_VIEW = 0;
+
+    /**
+     * Rows hold no undo container and the whole row is swiped. The swipe background and the undo
+     * affordance are drawn underneath the rows by a {@link SwipeUndoDecoration}, which has to be
+     * added to the {@link android.support.v7.widget.RecyclerView}.
+     */
+    public static final int UNDO_MODE_DECORATION = 1;
+
+    private static final int VELOCITY_ESTIMATOR_SAMPLES = 20;
+    private static final TimeInterpolator DEFAULT_INTERPOLATOR =
+            new AccelerateDecelerateInterpolator();
+    private static final float SPRING_TOLERANCE_PIXELS = 0.5f;
+    private static final long DISMISS_TIMER_TICK_MILLIS = 100;
+    private static final int DISMISS_TIMER_SLOTS = 128;
+    private static final long NO_BOUND_ITEM = Long.MIN_VALUE;
+
+    // End actions of the row animations
+    private static final int ANIMATION_END_DESTROY_LAYER = 1;
+    private static final int ANIMATION_END_DISMISS = 2;
+    private static final int ANIMATION_END_BULK_DISMISS = 3;
+    private static final int ANIMATION_END_COLLAPSE = 4;
+    private static final int ANIMATION_END_RESTORE_ROW = 5;
+
+    // Cached system-wide constant values
     private final long mAnimationTime;
 
     // Fixed properties
     private final SomeCollectionView mRecyclerView;
     private final DismissCallbacks<SomeCollectionView> mCallbacks;
+    // The same callbacks if they are informed per batch, otherwise null
+    private final BatchDismissCallbacks<SomeCollectionView> mBatchCallbacks;
     private int mViewWidth = 1; // 1 and not 0 to prevent dividing by zero
 
     // Transient properties
-    private PendingDismissData mPendingDismiss;
-    private float mDownX;
-    private float mDownY;
-    private boolean mSwiping;
-    private int mSwipingSlop;
+    private final PendingDismissQueue<PendingDismissData> mPendingDismisses =
+            new PendingDismissQueue<>();
+    private final SwipeGesture mGesture;
     private VelocityTracker mVelocityTracker;
-    private int mDownPosition;
+    private VelocityEstimator mVelocityEstimator;
+    private TouchPredictor mTouchPredictor;
+    private long mPredictionMillis;
+    private int mDownPosition = ListView.INVALID_POSITION;
     private RowContainer mRowContainer;
     private boolean mPaused;
+    private boolean mInterceptTouches;
+
+    // Scratch objects reused by every touch event to avoid allocations
+    private final int[] mListViewCoords = new int[2];
+    private boolean mCountTouchAllocations;
+    private int mTouchAllocationCount;
 
-    // Handler to dismiss pending items after a delay
+    // Handler to dismiss pending items after a delay. Every pending item has its own deadline
+    // in the timer wheel and a single message is posted for the earliest one.
     private final Handler mHandler;
+    private final TimerWheel mDismissTimers =
+            new TimerWheel(DISMISS_TIMER_TICK_MILLIS, DISMISS_TIMER_SLOTS);
+    private long mNextPendingDismissKey;
+    private final LongIntHashMap mExpiredKeys = new LongIntHashMap(16, 0);
+    private final PendingDismissQueue.Filter<PendingDismissData> mExpiredFilter =
+            new PendingDismissQueue.Filter<PendingDismissData>() {
+                @Override
+                public boolean accept(PendingDismissData pendingDismiss) {
+                    return mExpiredKeys.containsKey(pendingDismiss.key);
+                }
+            };
+    private long mScheduledDismissTime = TimerWheel.NO_DEADLINE;
     private final Runnable mDismissRunnable = new Runnable() {
         @Override
         public void run() {
-            processPendingDismisses();
+            mScheduledDismissTime = TimerWheel.NO_DEADLINE;
+            processExpiredPendingDismisses();
         }
     };
     private long mDismissDelayMillis = -1; // negative to disable automatic dismissing
+    private int mCollapseMode = COLLAPSE_MODE_HEIGHT;
+    private int mCommitPolicy = COMMIT_POLICY_SCROLL;
+    private int mUndoMode = UNDO_MODE_CHILD_VIEW;
+    private int mScrollState = AbsListView.OnScrollListener.SCROLL_STATE_IDLE;
+    private boolean mIdleCommitQueued;
+    private final MessageQueue.IdleHandler mIdleCommitHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            mIdleCommitQueued = false;
+            if (mScrollState == AbsListView.OnScrollListener.SCROLL_STATE_IDLE) {
+                processPendingDismisses();
+            }
+            return false;
+        }
+    };
+    private boolean mUseHardwareLayers;
+    private boolean mUseSpringAnimations;
+    // Reused by the release animations, one per row animating at the same time
+    private final List<CurveInterpolator> mFlingInterpolators = new ArrayList<>();
+    private final List<CurveInterpolator> mSpringInterpolators = new ArrayList<>();
+    private CommitPipeline mCommitPipeline;
+    private UndoContainerFactory mUndoContainerFactory;
+    private final List<View> mUndoContainerPool = new ArrayList<>();
+    private final List<BulkDismiss> mBulkDismisses = new ArrayList<>();
+    // Swiped rows sliding out, reused like the release interpolators
+    private final List<SlidingDismiss> mSlidingDismisses = new ArrayList<>();
+    private final List<SlidingDismiss> mSlidingDismissPool = new ArrayList<>();
+    // Scratch index shifting the sliding and swiped rows when a batch is dispatched
+    private final RemovedPositionIndex mDispatchedPositions = new RemovedPositionIndex();
+    private final SwipeStateStore mSwipeStates = new SwipeStateStore();
+    private final RowAnimator mRowAnimator;
+
+    // Optional performance reporting
+    private SwipeMetrics mMetrics;
+    private FrameCounter mFrameCounter;
+    private SwipeFrameRenderer mFrameRenderer;
 
     public class RowContainer {
 
         final View container;
         final View dataContainer;
-        final View undoContainer;
+        View undoContainer;
+        private ViewStub undoStub;
+        private boolean undoContainerPooled;
         boolean dataContainerHasBeenDismissed;
+        private View layerView;
+        private int previousLayerType;
+        long releaseTime;
+        int heightBeforeCollapse;
+        long boundItemId = NO_BOUND_ITEM;
 
-        public RowContainer(ViewGroup container) {
+        public RowContainer(View container) {
             this.container = container;
-            dataContainer = container.getChildAt(0);
-            undoContainer = container.getChildAt(1);
+            if (mUndoMode == UNDO_MODE_DECORATION) {
+                dataContainer = container;
+            } else {
+                dataContainer = ((ViewGroup) container).getChildAt(0);
+                View secondChild = ((ViewGroup) container).getChildAt(1);
+                if (secondChild instanceof ViewStub) {
+                    undoStub = (ViewStub) secondChild;
+                } else {
+                    undoContainer = secondChild;
+                }
+            }
             dataContainerHasBeenDismissed = false;
         }
 
+        /**
+         * Returns the undo container, inflating its stub or taking one from the undo container
+         * factory the first time it is needed.
+         */
+        View requireUndoContainer() {
+            if (undoContainer != null) return undoContainer;
+            if (undoStub != null) {
+                undoContainer = undoStub.inflate();
+                undoStub = null;
+            } else if (mUndoContainerFactory != null) {
+                int size = mUndoContainerPool.size();
+                undoContainer = size > 0 ? mUndoContainerPool.remove(size - 1)
+                        : mUndoContainerFactory.createUndoContainer((ViewGroup) container);
+                undoContainerPooled = true;
+                if (undoContainer.getLayoutParams() == null) {
+                    ((ViewGroup) container).addView(undoContainer, new ViewGroup.LayoutParams(
+                            ViewGroup.LayoutParams.MATCH_PARENT,
+                            ViewGroup.LayoutParams.MATCH_PARENT));
+                } else {
+                    ((ViewGroup) container).addView(undoContainer);
+                }
+            } else {
+                throw new IllegalStateException("Row has no undo container, nor a ViewStub for "
+                        + "it, and no UndoContainerFactory was set");
+            }
+            return undoContainer;
+        }
+
+        /**
+         * Gives an undo container created by the undo container factory back to the pool, so
+         * other rows can use it.
+         */
+        void releaseUndoContainer() {
+            if (!undoContainerPooled) return;
+            ((ViewGroup) container).removeView(undoContainer);
+            mUndoContainerPool.add(undoContainer);
+            undoContainer = null;
+            undoContainerPooled = false;
+        }
+
         View getCurrentSwipingView() {
             return dataContainerHasBeenDismissed ? undoContainer: dataContainer;
         }
 
+        void buildSwipingLayer() {
+            if (layerView != null) return;
+            layerView = getCurrentSwipingView();
+            previousLayerType = layerView.getLayerType();
+            layerView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        }
+
+        void destroySwipingLayer() {
+            if (layerView == null) return;
+            layerView.setLayerType(previousLayerType, null);
+            layerView = null;
+        }
+
+    }
+
+    /**
+     * Creates undo containers for rows that only hold their data container. The undo containers
+     * are added to a row when it becomes pending and are shared between rows through a pool once
+     * the row is undone or dismissed.
+     */
+    public interface UndoContainerFactory {
+        /**
+         * Called to create a new undo container.
+         *
+         * @param parent The row the undo container will be added to first.
+         * @return the undo container, not yet attached to any parent.
+         */
+        View createUndoContainer(ViewGroup parent);
+    }
+
+    /**
+     * Selects the rows to dismiss with {@link #dismissWhere(PositionPredicate)}.
+     */
+    public interface PositionPredicate {
+        /**
+         * @return whether the row at the given position should be dismissed.
+         */
+        boolean apply(int position);
     }
 
     /**
@@ -151,6 +388,23 @@ public class SwipeToDismissTouchListener<SomeCollectionView extends ViewAdapter>
         void onDismiss(SomeCollectionView recyclerView, int position);
     }
 
+    /**
+     * A {@link DismissCallbacks} that is informed once per committed batch instead of once per
+     * item. When the listener is given one of these, {@link #onDismiss(ViewAdapter, int[])} is
+     * called instead of {@link #onDismiss(ViewAdapter, int)}.
+     */
+    public interface BatchDismissCallbacks<SomeCollectionView extends ViewAdapter>
+            extends DismissCallbacks<SomeCollectionView> {
+        /**
+         * Called when a batch of pending items is completely dismissed and removed from the list.
+         *
+         * @param recyclerView The originating {@link android.support.v7.widget.RecyclerView}.
+         * @param reverseSortedPositions The positions of the dismissed items, in descending order
+         *                               so they can be removed one after another.
+         */
+        void onDismiss(SomeCollectionView recyclerView, int[] reverseSortedPositions);
+    }
+
     /**
      * Constructs a new swipe-to-dismiss touch listener for the given list view.
      *
@@ -161,14 +415,22 @@ public class SwipeToDismissTouchListener<SomeCollectionView extends ViewAdapter>
     public SwipeToDismissTouchListener(SomeCollectionView recyclerView,
                                        DismissCallbacks<SomeCollectionView> callbacks) {
         ViewConfiguration vc = ViewConfiguration.get(recyclerView.getContext());
-        mSlop = vc.getScaledTouchSlop();
-        mMinFlingVelocity = vc.getScaledMinimumFlingVelocity() * 16;
-        mMaxFlingVelocity = vc.getScaledMaximumFlingVelocity();
+        mGesture = new SwipeGesture(vc.getScaledTouchSlop(),
+                vc.getScaledMinimumFlingVelocity() * 16, vc.getScaledMaximumFlingVelocity());
         mAnimationTime = recyclerView.getContext().getResources().getInteger(
                 android.R.integer.config_shortAnimTime);
         mRecyclerView = recyclerView;
         mCallbacks = callbacks;
+        mBatchCallbacks = callbacks instanceof BatchDismissCallbacks
+                ? (BatchDismissCallbacks<SomeCollectionView>) callbacks : null;
         mHandler = new Handler();
+        mRowAnimator = new RowAnimator(recyclerView.getContext(), new RowAnimator.Callback() {
+            @Override
+            public void onRowAnimationEnd(int action, View view, Object arg, int intArg,
+                                          long longArg) {
+                onAnimationEnd(action, view, arg, intArg, longArg);
+            }
+        });
     }
 
     /**
@@ -189,6 +451,229 @@ public class SwipeToDismissTouchListener<SomeCollectionView extends ViewAdapter>
         this.mDismissDelayMillis = dismissDelayMillis;
     }
 
+    /**
+     * Set how many rows can be waiting for undo at the same time. When a row is swiped while the
+     * limit has been reached, all the pending rows are dismissed together before the new one is
+     * added. Defaults to 1.
+     * @param maxPendingDismisses The maximum number of rows showing their undo container.
+     */
+    public void setMaxPendingDismisses(int maxPendingDismisses) {
+        mPendingDismisses.setMaxSize(maxPendingDismisses);
+    }
+
+    /**
+     * Set how dismissed rows are removed from the list once they are confirmed.
+     * @param collapseMode One of {@link #COLLAPSE_MODE_HEIGHT}, {@link #COLLAPSE_MODE_TRANSLATE} or
+     *                     {@link #COLLAPSE_MODE_ITEM_ANIMATOR}.
+     */
+    public void setCollapseMode(int collapseMode) {
+        if (collapseMode != COLLAPSE_MODE_HEIGHT && collapseMode != COLLAPSE_MODE_TRANSLATE
+                && collapseMode != COLLAPSE_MODE_ITEM_ANIMATOR) {
+            throw new IllegalArgumentException("Unknown collapse mode " + collapseMode);
+        }
+        if (collapseMode == COLLAPSE_MODE_ITEM_ANIMATOR
+                && !(mRecyclerView instanceof NotifyingViewAdapter)) {
+            throw new IllegalStateException(
+                    "COLLAPSE_MODE_ITEM_ANIMATOR requires a NotifyingViewAdapter");
+        }
+        this.mCollapseMode = collapseMode;
+    }
+
+    /**
+     * Set when pending rows are dismissed in response to scrolling.
+     * @param commitPolicy One of {@link #COMMIT_POLICY_SCROLL} or {@link #COMMIT_POLICY_IDLE}.
+     */
+    public void setCommitPolicy(int commitPolicy) {
+        if (commitPolicy != COMMIT_POLICY_SCROLL && commitPolicy != COMMIT_POLICY_IDLE) {
+            throw new IllegalArgumentException("Unknown commit policy " + commitPolicy);
+        }
+        this.mCommitPolicy = commitPolicy;
+        if (commitPolicy != COMMIT_POLICY_IDLE) cancelIdleCommit();
+    }
+
+    /**
+     * Set a factory creating the undo containers of rows that only hold their data container.
+     * Alternatively, a row can declare its undo container as a {@link ViewStub}, which is inflated
+     * the first time the row becomes pending.
+     * @param undoContainerFactory The factory, or null to require an undo container in every row.
+     */
+    public void setUndoContainerFactory(UndoContainerFactory undoContainerFactory) {
+        this.mUndoContainerFactory = undoContainerFactory;
+        mUndoContainerPool.clear();
+    }
+
+    /**
+     * Set how the undo affordance of pending rows is shown.
+     * @param undoMode One of {@link #UNDO_MODE_CHILD_VIEW} or {@link #UNDO_MODE_DECORATION}.
+     */
+    public void setUndoMode(int undoMode) {
+        if (undoMode != UNDO_MODE_CHILD_VIEW && undoMode != UNDO_MODE_DECORATION) {
+            throw new IllegalArgumentException("Unknown undo mode " + undoMode);
+        }
+        this.mUndoMode = undoMode;
+    }
+
+    /**
+     * Render the swiping row into a hardware layer for the whole gesture and release animation, so
+     * changing its translation and alpha on every frame only composites the layer instead of
+     * redrawing the row offscreen. Worth enabling for complex rows. Disabled by default.
+     * @param useHardwareLayers Whether to use hardware layers.
+     */
+    public void setUseHardwareLayers(boolean useHardwareLayers) {
+        this.mUseHardwareLayers = useHardwareLayers;
+    }
+
+    /**
+     * Estimate the finger velocity with the library's own least squares estimator instead of a
+     * {@link VelocityTracker}. The decision to dismiss a released row is then based on where the
+     * row is predicted to land, and flung rows finish their release animation as fast as the
+     * finger was moving. Disabled by default.
+     * @param useVelocityEstimator Whether to use the built-in velocity estimator.
+     */
+    public void setUseVelocityEstimator(boolean useVelocityEstimator) {
+        if (useVelocityEstimator && mVelocityEstimator == null) {
+            mVelocityEstimator = new VelocityEstimator(VELOCITY_ESTIMATOR_SAMPLES);
+        } else if (!useVelocityEstimator) {
+            mVelocityEstimator = null;
+        }
+    }
+
+    /**
+     * Release swiped rows continuing the velocity of the finger, instead of with a fixed duration
+     * animation. Dismissed rows keep moving at least as fast as they were flung, so hard flings
+     * leave the screen sooner and stop blocking further gestures earlier. Rows that are not
+     * dismissed spring back into place. Disabled by default.
+     * @param useSpringAnimations Whether to release rows with velocity driven animations.
+     */
+    public void setUseSpringAnimations(boolean useSpringAnimations) {
+        this.mUseSpringAnimations = useSpringAnimations;
+    }
+
+    /**
+     * Set a pipeline that receives the stable ids of the dismissed items, after the dismiss
+     * callbacks have removed them from the list, to commit them in the background. Requires an
+     * adapter with stable ids, items dismissed while it has none are not enqueued.
+     * @param commitPipeline The pipeline, or null to stop using it.
+     */
+    public void setCommitPipeline(CommitPipeline commitPipeline) {
+        if (commitPipeline != null && !mRecyclerView.hasStableIds()) {
+            throw new IllegalStateException("A commit pipeline requires stable ids");
+        }
+        this.mCommitPipeline = commitPipeline;
+    }
+
+    /**
+     * Move the swiping row once per display frame, to the finger position matching the frame
+     * time, instead of once per touch event. Saves redundant work on touchscreens reporting
+     * touches faster than the display refreshes, at the cost of up to one frame of latency. Has
+     * no effect before Jelly Bean. Disabled by default.
+     * @param coalesceMoves Whether to move the swiping row once per frame.
+     */
+    public void setCoalesceMoves(boolean coalesceMoves) {
+        if (coalesceMoves && mFrameRenderer == null
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            mFrameRenderer = new SwipeFrameRenderer(mGesture);
+        } else if (!coalesceMoves && mFrameRenderer != null) {
+            mFrameRenderer.finish();
+            mFrameRenderer = null;
+        }
+    }
+
+    /**
+     * Draw the swiping row where the finger is predicted to be after the given time, extrapolated
+     * from its recent movement, to make up for the time it takes to show a frame. Disabled by
+     * default.
+     * @param predictionMillis How far ahead to predict, or 0 to draw the row at the finger.
+     */
+    public void setTouchPrediction(long predictionMillis) {
+        mPredictionMillis = predictionMillis;
+        if (predictionMillis > 0 && mTouchPredictor == null) {
+            mTouchPredictor = new TouchPredictor();
+        } else if (predictionMillis <= 0) {
+            mTouchPredictor = null;
+        }
+    }
+
+    /**
+     * Set a callback to be informed about the performance of the swipe gestures and animations.
+     * @param metrics The callback, or null to stop reporting.
+     */
+    public void setSwipeMetrics(SwipeMetrics metrics) {
+        this.mMetrics = metrics;
+        if (metrics != null && mFrameCounter == null
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            mFrameCounter = new FrameCounter();
+        }
+    }
+
+    /**
+     * Debugging aid to verify that touch handling doesn't allocate in steady state. Turns on the
+     * allocation counting of the runtime, see {@link android.os.Debug#startAllocCounting()}, and
+     * measures the objects the UI thread allocates while in {@link #onTouch(View, MotionEvent)}.
+     * Counting slows the whole process down, so leave it off in release builds.
+     *
+     * @param countAllocations Whether to count the allocations.
+     */
+    @SuppressWarnings("deprecation")
+    public void setCountTouchAllocations(boolean countAllocations) {
+        if (countAllocations == mCountTouchAllocations) return;
+        mCountTouchAllocations = countAllocations;
+        if (countAllocations) {
+            Debug.startAllocCounting();
+        } else {
+            Debug.stopAllocCounting();
+        }
+    }
+
+    /**
+     * @return the number of objects allocated by {@link #onTouch(View, MotionEvent)} while
+     * {@link #setCountTouchAllocations(boolean) counting}, including the ones allocated by the
+     * callbacks and views it calls into. Frames drawn after a touch event are not counted.
+     */
+    public int getTouchAllocationCount() {
+        return mTouchAllocationCount;
+    }
+
+    /**
+     * Returns the swipe state of the items, keyed by stable item id. Only maintained when the
+     * adapter has stable ids.
+     */
+    public SwipeStateStore getSwipeStateStore() {
+        return mSwipeStates;
+    }
+
+    /**
+     * Restores the swipe state of a row being bound to an item, to be called from
+     * {@code onBindViewHolder} or {@code getView} once the row shows the item. Rows of pending
+     * items show their undo container again, other rows are put back in place. Rows bound again
+     * to the same item, e.g. by {@code notifyDataSetChanged}, cost a single lookup and keep their
+     * gesture and animations. Rows bound to another item are let go of their previous one, which
+     * costs a walk over the pending items. Requires stable ids.
+     *
+     * @param row The row, i.e. the item view of the view holder or the view returned by getView.
+     * @param itemId The stable id of the item the row is bound to.
+     */
+    public void bindRow(View row, long itemId) {
+        RowContainer rowContainer = findRowContainer(row);
+        if (rowContainer == null) {
+            rowContainer = createRowContainer(row);
+        } else if (rowContainer.boundItemId == itemId) {
+            // The row already shows the state of its item
+            return;
+        } else {
+            // The row may still be showing the state of the item it was bound to before
+            releaseRow(row);
+        }
+        rowContainer.boundItemId = itemId;
+        int state = mSwipeStates.getState(itemId);
+        if (state == SwipeStateStore.STATE_IDLE) return;
+        showPendingState(rowContainer);
+        if (state == SwipeStateStore.STATE_PENDING_UNDO) {
+            PendingDismissData pendingDismiss = mPendingDismisses.findByItemId(itemId);
+            if (pendingDismiss != null) pendingDismiss.rowContainer = rowContainer;
+        }
+    }
+
     /**
      * Returns an {@link android.widget.AbsListView.OnScrollListener} to be added to the {@link
      * android.widget.ListView} using {@link android.widget.ListView#setOnScrollListener(android.widget.AbsListView.OnScrollListener)}.
@@ -202,7 +687,16 @@ public class SwipeToDismissTouchListener<SomeCollectionView extends ViewAdapter>
         return mRecyclerView.makeScrollListener(new AbsListView.OnScrollListener() {
             @Override
             public void onScrollStateChanged(AbsListView absListView, int scrollState) {
-                processPendingDismisses();
+                mScrollState = scrollState;
+                if (mCommitPolicy == COMMIT_POLICY_IDLE) {
+                    if (scrollState == AbsListView.OnScrollListener.SCROLL_STATE_IDLE) {
+                        queueIdleCommit();
+                    } else {
+                        cancelIdleCommit();
+                    }
+                } else {
+                    processPendingDismisses();
+                }
                 setEnabled(scrollState != AbsListView.OnScrollListener.SCROLL_STATE_TOUCH_SCROLL);
             }
 
@@ -212,11 +706,61 @@ public class SwipeToDismissTouchListener<SomeCollectionView extends ViewAdapter>
         });
     }
 
+    /**
+     * Returns a listener that claims swipe gestures by intercepting them, to be added to the
+     * {@link android.support.v7.widget.RecyclerView} using
+     * {@link android.support.v7.widget.RecyclerView#addOnItemTouchListener(android.support.v7.widget.RecyclerView.OnItemTouchListener)}
+     * instead of setting this listener with {@link View#setOnTouchListener(View.OnTouchListener)}.
+     * No cancel event has to be sent through the collection view when a swipe starts, and the
+     * swipe plays well with nested scrolling parents. Requires an
+     * {@link InterceptingViewAdapter} such as {@link com.hudomju.swipe.adapter.RecyclerViewAdapter}.
+     */
+    public Object makeItemTouchListener() {
+        if (!(mRecyclerView instanceof InterceptingViewAdapter)) {
+            throw new IllegalStateException("makeItemTouchListener requires an InterceptingViewAdapter");
+        }
+        mInterceptTouches = true;
+        return ((InterceptingViewAdapter) mRecyclerView).makeItemTouchListener(this);
+    }
+
+    /**
+     * Returns a recycler listener that lets go of the rows recycled while pending or animating, to
+     * be set on the {@link android.support.v7.widget.RecyclerView} using
+     * {@link android.support.v7.widget.RecyclerView#setRecyclerListener(android.support.v7.widget.RecyclerView.RecyclerListener)}.
+     * The pending items only keep their position and id, and their undo state is shown again
+     * when a row is bound to them. Requires a {@link RecyclingViewAdapter} such as
+     * {@link com.hudomju.swipe.adapter.RecyclerViewAdapter}.
+     */
+    public Object makeRecyclerListener() {
+        if (!(mRecyclerView instanceof RecyclingViewAdapter)) {
+            throw new IllegalStateException("makeRecyclerListener requires a RecyclingViewAdapter");
+        }
+        return ((RecyclingViewAdapter) mRecyclerView).makeRecyclerListener(
+                new RecyclingViewAdapter.RowRecycleListener() {
+                    @Override
+                    public void onRowRecycled(View row) {
+                        releaseRow(row);
+                    }
+
+                    @Override
+                    public void onRowAttached(View row) {
+                        restorePendingRow(row);
+                    }
+                });
+    }
+
     @Override
+    @SuppressWarnings("deprecation")
     public boolean onTouch(View view, MotionEvent motionEvent) {
-        if (mViewWidth < 2) {
-            mViewWidth = mRecyclerView.getWidth();
-        }
+        if (!mCountTouchAllocations) return handleTouch(motionEvent);
+        int allocationCount = Debug.getThreadAllocCount();
+        boolean handled = handleTouch(motionEvent);
+        mTouchAllocationCount += Debug.getThreadAllocCount() - allocationCount;
+        return handled;
+    }
+
+    private boolean handleTouch(MotionEvent motionEvent) {
+        refreshViewWidth();
 
         switch (motionEvent.getActionMasked()) {
             case MotionEvent.ACTION_DOWN: {
@@ -227,37 +771,40 @@ public class SwipeToDismissTouchListener<SomeCollectionView extends ViewAdapter>
                 // TODO: ensure this is a finger, and set a flag
 
                 // Find the child view that was touched (perform a hit test)
-                Rect rect = new Rect();
-                int childCount = mRecyclerView.getChildCount();
-                int[] listViewCoords = new int[2];
-                mRecyclerView.getLocationOnScreen(listViewCoords);
-                int x = (int) motionEvent.getRawX() - listViewCoords[0];
-                int y = (int) motionEvent.getRawY() - listViewCoords[1];
-                View child;
-                for (int i = 0; i < childCount; i++) {
-                    child = mRecyclerView.getChildAt(i);
-                    child.getHitRect(rect);
-                    if (rect.contains(x, y)) {
-                        assert child instanceof ViewGroup &&
-                                ((ViewGroup) child).getChildCount() == 2 :
-                                "Each child needs to extend from ViewGroup and have two children";
-
-                        boolean dataContainerHasBeenDismissed = mPendingDismiss != null &&
-                                mPendingDismiss.position == mRecyclerView.getChildPosition(child) &&
-                                mPendingDismiss.rowContainer.dataContainerHasBeenDismissed;
-                        mRowContainer = new RowContainer((ViewGroup) child);
-                        mRowContainer.dataContainerHasBeenDismissed = dataContainerHasBeenDismissed;
-                        break;
+                mRecyclerView.getLocationOnScreen(mListViewCoords);
+                int x = (int) motionEvent.getRawX() - mListViewCoords[0];
+                int y = (int) motionEvent.getRawY() - mListViewCoords[1];
+                int childIndex = mRecyclerView.findChildIndexUnder(x, y);
+                int childPosition = childIndex >= 0
+                        ? mRecyclerView.getChildPositionAt(childIndex)
+                        : ListView.INVALID_POSITION;
+                // A row being removed has no position and can't be swiped
+                if (childPosition != ListView.INVALID_POSITION) {
+                    View child = mRecyclerView.getChildAt(childIndex);
+                    assert mUndoMode == UNDO_MODE_DECORATION || child instanceof ViewGroup :
+                            "Each child needs to extend from ViewGroup";
+
+                    PendingDismissData pendingDismiss = findPendingDismiss(childPosition);
+                    boolean dataContainerHasBeenDismissed = pendingDismiss != null
+                            && pendingDismiss.rowContainer != null
+                            && pendingDismiss.rowContainer.dataContainerHasBeenDismissed;
+                    mRowContainer = getRowContainer(child);
+                    mRowContainer.dataContainerHasBeenDismissed = dataContainerHasBeenDismissed;
+                    // Rows drawn as pending by a decoration have nothing left to swipe
+                    if (mRowContainer.getCurrentSwipingView() == null) {
+                        mRowContainer = null;
                     }
                 }
 
                 if (mRowContainer != null) {
-                    mDownX = motionEvent.getRawX();
-                    mDownY = motionEvent.getRawY();
-                    mDownPosition = mRecyclerView.getChildPosition(mRowContainer.container);
+                    mDownPosition = childPosition;
                     if (mCallbacks.canDismiss(mDownPosition)) {
-                        mVelocityTracker = VelocityTracker.obtain();
-                        mVelocityTracker.addMovement(motionEvent);
+                        addMovement(motionEvent);
+                        mGesture.down(motionEvent.getRawX(), motionEvent.getRawY(),
+                                motionEvent.getEventTime());
+                        if (mMetrics != null && mFrameCounter != null) {
+                            mFrameCounter.start();
+                        }
                     } else {
                         mRowContainer = null;
                     }
@@ -266,111 +813,143 @@ public class SwipeToDismissTouchListener<SomeCollectionView extends ViewAdapter>
             }
 
             case MotionEvent.ACTION_CANCEL: {
-                if (mVelocityTracker == null) {
+                if (!mGesture.isTracking()) {
                     break;
                 }
 
-                if (mRowContainer != null && mSwiping) {
+                finishFrameRendering();
+                if (mRowContainer != null && mGesture.isSwiping()) {
                     // cancel
-                    mRowContainer.getCurrentSwipingView()
-                            .animate()
-                            .translationX(0)
-                            .alpha(1)
-                            .setDuration(mAnimationTime)
-                            .setListener(null);
+                    int animation = mRowAnimator.animate(mRowContainer.getCurrentSwipingView(),
+                            mAnimationTime, DEFAULT_INTERPOLATOR);
+                    mRowAnimator.translationX(animation, 0);
+                    mRowAnimator.alpha(animation, 1);
+                    mRowAnimator.endAction(animation, ANIMATION_END_DESTROY_LAYER, mRowContainer,
+                            0, 0);
                 }
-                mVelocityTracker.recycle();
-                mVelocityTracker = null;
-                mDownX = 0;
-                mDownY = 0;
-                mRowContainer = null;
-                mDownPosition = ListView.INVALID_POSITION;
-                mSwiping = false;
+                mGesture.cancel();
+                resetGesture();
                 break;
             }
 
             case MotionEvent.ACTION_UP: {
-                if (mVelocityTracker == null) {
+                if (!mGesture.isTracking()) {
                     break;
                 }
 
-                float deltaX = motionEvent.getRawX() - mDownX;
-                mVelocityTracker.addMovement(motionEvent);
-                mVelocityTracker.computeCurrentVelocity(1000);
-                float velocityX = mVelocityTracker.getXVelocity();
-                float absVelocityX = Math.abs(velocityX);
-                float absVelocityY = Math.abs(mVelocityTracker.getYVelocity());
-                boolean dismiss = false;
-                boolean dismissRight = false;
-                if (Math.abs(deltaX) > mViewWidth / 2 && mSwiping) {
-                    dismiss = true;
-                    dismissRight = deltaX > 0;
-                } else if (mMinFlingVelocity <= absVelocityX && absVelocityX <= mMaxFlingVelocity
-                        && absVelocityY < absVelocityX && mSwiping) {
-                    // dismiss only if flinging in the same direction as dragging
-                    dismiss = (velocityX < 0) == (deltaX < 0);
-                    dismissRight = mVelocityTracker.getXVelocity() > 0;
+                finishFrameRendering();
+                addMovement(motionEvent);
+                float velocityX;
+                int release;
+                if (mVelocityEstimator != null) {
+                    // Decide with where the row would be halfway through the release animation
+                    velocityX = mVelocityEstimator.getVelocityX();
+                    release = mGesture.releaseProjected(motionEvent.getRawX(), velocityX,
+                            mVelocityEstimator.getVelocityY(), mAnimationTime / 2);
+                } else {
+                    VelocityTracker velocityTracker = getVelocityTracker();
+                    velocityTracker.computeCurrentVelocity(1000);
+                    velocityX = velocityTracker.getXVelocity();
+                    release = mGesture.release(motionEvent.getRawX(), velocityX,
+                            velocityTracker.getYVelocity());
                 }
-                if (dismiss && mDownPosition != ListView.INVALID_POSITION) {
+                if (release != SwipeGesture.RELEASE_CANCEL
+                        && mDownPosition != ListView.INVALID_POSITION) {
                     // dismiss
-                    final RowContainer downView = mRowContainer; // mDownView gets null'd before animation ends
-                    final int downPosition = mDownPosition;
-                    mRowContainer.getCurrentSwipingView()
-                            .animate()
-                            .translationX(dismissRight ? mViewWidth : -mViewWidth)
-                            .alpha(0)
-                            .setDuration(mAnimationTime)
-                            .setListener(new AnimatorListenerAdapter() {
-                                @Override
-                                public void onAnimationEnd(Animator animation) {
-                                    performDismiss(downView, downPosition);
-                                }
-                            });
+                    boolean dismissRight = release == SwipeGesture.RELEASE_DISMISS_RIGHT;
+                    mRowContainer.releaseTime = motionEvent.getEventTime();
+                    View swipingView = mRowContainer.getCurrentSwipingView();
+                    float targetX = dismissRight ? mViewWidth : -mViewWidth;
+                    int animation;
+                    if (mUseSpringAnimations) {
+                        CurveInterpolator interpolator =
+                                obtainCurveInterpolator(mFlingInterpolators, true);
+                        ((FlingCurve) interpolator.getCurve()).start(
+                                targetX - swipingView.getTranslationX(),
+                                dismissRight ? velocityX : -velocityX);
+                        animation = animateAlong(swipingView, interpolator);
+                    } else {
+                        animation = mRowAnimator.animate(swipingView,
+                                getDismissDuration(swipingView,
+                                        dismissRight ? velocityX : -velocityX),
+                                DEFAULT_INTERPOLATOR);
+                    }
+                    mRowAnimator.translationX(animation, targetX);
+                    mRowAnimator.alpha(animation, 0);
+                    mRowAnimator.endAction(animation, ANIMATION_END_DISMISS,
+                            obtainSlidingDismiss(mRowContainer, mDownPosition,
+                                    mRecyclerView.getItemId(mDownPosition)), 0, 0);
                 } else {
                     // cancel
-                    mRowContainer.getCurrentSwipingView()
-                            .animate()
-                            .translationX(0)
-                            .alpha(1)
-                            .setDuration(mAnimationTime)
-                            .setListener(null);
+                    View swipingView = mRowContainer.getCurrentSwipingView();
+                    int animation;
+                    if (mUseSpringAnimations) {
+                        CurveInterpolator interpolator =
+                                obtainCurveInterpolator(mSpringInterpolators, false);
+                        ((SpringCurve) interpolator.getCurve()).start(
+                                swipingView.getTranslationX(), 0, velocityX,
+                                SPRING_TOLERANCE_PIXELS);
+                        animation = animateAlong(swipingView, interpolator);
+                    } else {
+                        animation = mRowAnimator.animate(swipingView, mAnimationTime,
+                                DEFAULT_INTERPOLATOR);
+                    }
+                    mRowAnimator.translationX(animation, 0);
+                    mRowAnimator.alpha(animation, 1);
+                    mRowAnimator.endAction(animation, ANIMATION_END_DESTROY_LAYER, mRowContainer,
+                            0, 0);
                 }
-                mVelocityTracker.recycle();
-                mVelocityTracker = null;
-                mDownX = 0;
-                mDownY = 0;
-                mRowContainer = null;
-                mDownPosition = ListView.INVALID_POSITION;
-                mSwiping = false;
+                resetGesture();
                 break;
             }
 
             case MotionEvent.ACTION_MOVE: {
-                if (mVelocityTracker == null || mPaused) {
+                if (!mGesture.isTracking() || mPaused) {
                     break;
                 }
 
-                mVelocityTracker.addMovement(motionEvent);
-                float deltaX = motionEvent.getRawX() - mDownX;
-                float deltaY = motionEvent.getRawY() - mDownY;
-                if (Math.abs(deltaX) > mSlop && Math.abs(deltaY) < Math.abs(deltaX) / 2) {
-                    mSwiping = true;
-                    mSwipingSlop = deltaX > 0 ? mSlop : -mSlop;
+                addMovement(motionEvent);
+                if (mGesture.move(motionEvent.getRawX(), motionEvent.getRawY())) {
+                    if (mMetrics != null) {
+                        mMetrics.onSwipeRecognized(
+                                motionEvent.getEventTime() - mGesture.getDownTime());
+                    }
                     mRecyclerView.requestDisallowInterceptTouchEvent(true);
+                    if (mUseHardwareLayers) {
+                        mRowContainer.buildSwipingLayer();
+                    }
+                    if (mFrameRenderer != null) {
+                        mFrameRenderer.begin(mRowContainer.getCurrentSwipingView());
+                    }
 
-                    // Cancel ListView's touch (un-highlighting the item)
-                    MotionEvent cancelEvent = MotionEvent.obtain(motionEvent);
-                    cancelEvent.setAction(MotionEvent.ACTION_CANCEL |
-                            (motionEvent.getActionIndex()
-                                    << MotionEvent.ACTION_POINTER_INDEX_SHIFT));
-                    mRecyclerView.onTouchEvent(cancelEvent);
-                    cancelEvent.recycle();
+                    // Cancel ListView's touch (un-highlighting the item). When intercepting, the
+                    // collection view cancels it by itself once this event returns true
+                    if (!mInterceptTouches) {
+                        MotionEvent cancelEvent = MotionEvent.obtain(motionEvent);
+                        cancelEvent.setAction(MotionEvent.ACTION_CANCEL |
+                                (motionEvent.getActionIndex()
+                                        << MotionEvent.ACTION_POINTER_INDEX_SHIFT));
+                        mRecyclerView.onTouchEvent(cancelEvent);
+                        cancelEvent.recycle();
+                    }
                 }
 
-                if (mSwiping) {
-                    mRowContainer.getCurrentSwipingView().setTranslationX(deltaX - mSwipingSlop);
-                    mRowContainer.getCurrentSwipingView().setAlpha(Math.max(0f, Math.min(1f,
-                            1f - 2f * Math.abs(deltaX) / mViewWidth)));
+                if (mGesture.isSwiping()) {
+                    if (mFrameRenderer != null && mFrameRenderer.isRendering()) {
+                        addFrameSamples(motionEvent);
+                    } else if (mTouchPredictor != null) {
+                        float x = predictX(motionEvent);
+                        View swipingView = mRowContainer.getCurrentSwipingView();
+                        swipingView.setTranslationX(mGesture.translationForX(x));
+                        swipingView.setAlpha(mGesture.alphaForX(x));
+                    } else {
+                        View swipingView = mRowContainer.getCurrentSwipingView();
+                        swipingView.setTranslationX(mGesture.getTranslationX());
+                        swipingView.setAlpha(mGesture.getAlpha());
+                    }
+                    if (mUndoMode == UNDO_MODE_DECORATION) {
+                        mRecyclerView.invalidate();
+                    }
                     return true;
                 }
                 break;
@@ -379,58 +958,614 @@ public class SwipeToDismissTouchListener<SomeCollectionView extends ViewAdapter>
         return false;
     }
 
-    class PendingDismissData implements Comparable<PendingDismissData> {
-        public int position;
-        public RowContainer rowContainer;
+    private VelocityTracker getVelocityTracker() {
+        if (mVelocityTracker == null) {
+            mVelocityTracker = VelocityTracker.obtain();
+        }
+        return mVelocityTracker;
+    }
 
-        public PendingDismissData(int position, RowContainer rowContainer) {
-            this.position = position;
-            this.rowContainer= rowContainer;
+    private void addMovement(MotionEvent motionEvent) {
+        if (mVelocityEstimator == null) {
+            getVelocityTracker().addMovement(motionEvent);
+            return;
+        }
+        // Historical coordinates are relative to the view, offset them like the raw ones
+        float offsetX = motionEvent.getRawX() - motionEvent.getX();
+        float offsetY = motionEvent.getRawY() - motionEvent.getY();
+        for (int i = 0, historySize = motionEvent.getHistorySize(); i < historySize; i++) {
+            mVelocityEstimator.addSample(motionEvent.getHistoricalX(i) + offsetX,
+                    motionEvent.getHistoricalY(i) + offsetY,
+                    motionEvent.getHistoricalEventTime(i));
         }
+        mVelocityEstimator.addSample(motionEvent.getRawX(), motionEvent.getRawY(),
+                motionEvent.getEventTime());
+    }
 
-        @Override
-        public int compareTo(@NonNull PendingDismissData other) {
-            // Sort by descending position
-            return other.position - position;
+    private void addFrameSamples(MotionEvent motionEvent) {
+        float offsetX = motionEvent.getRawX() - motionEvent.getX();
+        for (int i = 0, historySize = motionEvent.getHistorySize(); i < historySize; i++) {
+            float x = motionEvent.getHistoricalX(i) + offsetX;
+            long time = motionEvent.getHistoricalEventTime(i);
+            if (mTouchPredictor != null) {
+                mTouchPredictor.addSample(x, time);
+                x = mTouchPredictor.predictX(mPredictionMillis);
+            }
+            mFrameRenderer.addSample(time, x);
+        }
+        float x = motionEvent.getRawX();
+        if (mTouchPredictor != null) {
+            mTouchPredictor.addSample(x, motionEvent.getEventTime());
+            x = mTouchPredictor.predictX(mPredictionMillis);
         }
+        mFrameRenderer.addSample(motionEvent.getEventTime(), x);
     }
 
-    private void performDismiss(RowContainer dismissView, int dismissPosition) {
-        // Animate the dismissed list item to zero-height and fire the dismiss callback when
-        // all dismissed list item animations have completed. This triggers layout on each animation
-        // frame; in the future we may want to do something smarter and more performant.
-        if (mPendingDismiss != null) {
-            boolean dismissingDifferentRow = mPendingDismiss.position != dismissPosition;
-            int newPosition = mPendingDismiss.position < dismissPosition ? dismissPosition-1 : dismissPosition;
-            processPendingDismisses();
-            if (dismissingDifferentRow) {
-                addPendingDismiss(dismissView, newPosition);
+    /**
+     * Feeds the touch predictor with the event and its historical samples.
+     * @return the predicted raw x.
+     */
+    private float predictX(MotionEvent motionEvent) {
+        float offsetX = motionEvent.getRawX() - motionEvent.getX();
+        for (int i = 0, historySize = motionEvent.getHistorySize(); i < historySize; i++) {
+            mTouchPredictor.addSample(motionEvent.getHistoricalX(i) + offsetX,
+                    motionEvent.getHistoricalEventTime(i));
+        }
+        mTouchPredictor.addSample(motionEvent.getRawX(), motionEvent.getEventTime());
+        return mTouchPredictor.predictX(mPredictionMillis);
+    }
+
+    private void finishFrameRendering() {
+        if (mFrameRenderer != null) mFrameRenderer.finish();
+    }
+
+    /**
+     * With the built-in velocity estimator, a flung row leaves as fast as the finger was moving.
+     */
+    private long getDismissDuration(View swipingView, float outwardVelocity) {
+        if (mVelocityEstimator == null || outwardVelocity <= 0) return mAnimationTime;
+        float remainingDistance = mViewWidth - Math.abs(swipingView.getTranslationX());
+        long duration = (long) (1000 * remainingDistance / outwardVelocity);
+        return Math.max(1, Math.min(mAnimationTime, duration));
+    }
+
+    private int animateAlong(View view, CurveInterpolator interpolator) {
+        return mRowAnimator.animate(view, interpolator.getCurve().getDurationMillis(),
+                interpolator);
+    }
+
+    /**
+     * Returns an interpolator of the given pool that no running animation follows, so its curve
+     * can be started again, creating one when all of them are in use.
+     */
+    private CurveInterpolator obtainCurveInterpolator(List<CurveInterpolator> pool,
+                                                      boolean fling) {
+        for (int i = 0, size = pool.size(); i < size; i++) {
+            CurveInterpolator interpolator = pool.get(i);
+            if (!mRowAnimator.isAnimatingWith(interpolator)) return interpolator;
+        }
+        CurveInterpolator interpolator = new CurveInterpolator(fling
+                ? new FlingCurve(mAnimationTime) : new SpringCurve(mAnimationTime));
+        pool.add(interpolator);
+        return interpolator;
+    }
+
+    /**
+     * Reads the width rows slide out by, for every path that may run before the first touch.
+     */
+    private void refreshViewWidth() {
+        int width = mRecyclerView.getWidth();
+        if (width > 1 && width != mViewWidth) {
+            mViewWidth = width;
+            mGesture.setViewWidth(width);
+        }
+    }
+
+    private void resetGesture() {
+        if (mVelocityTracker != null) mVelocityTracker.clear();
+        if (mVelocityEstimator != null) mVelocityEstimator.clear();
+        if (mTouchPredictor != null) mTouchPredictor.clear();
+        reportGestureFrames();
+        mRowContainer = null;
+        mDownPosition = ListView.INVALID_POSITION;
+    }
+
+    private SlidingDismiss obtainSlidingDismiss(RowContainer rowContainer, int position,
+                                                long itemId) {
+        int poolSize = mSlidingDismissPool.size();
+        SlidingDismiss slidingDismiss = poolSize > 0
+                ? mSlidingDismissPool.remove(poolSize - 1) : new SlidingDismiss();
+        slidingDismiss.rowContainer = rowContainer;
+        slidingDismiss.position = position;
+        slidingDismiss.itemId = itemId;
+        mSlidingDismisses.add(slidingDismiss);
+        return slidingDismiss;
+    }
+
+    private void recycleSlidingDismiss(SlidingDismiss slidingDismiss) {
+        mSlidingDismisses.remove(slidingDismiss);
+        slidingDismiss.rowContainer = null;
+        mSlidingDismissPool.add(slidingDismiss);
+    }
+
+    /**
+     * A swiped row sliding out, before it joins the pending rows. Its position follows the
+     * batches dispatched meanwhile.
+     */
+    private final class SlidingDismiss {
+        RowContainer rowContainer;
+        int position;
+        long itemId;
+    }
+
+    private void reportGestureFrames() {
+        if (mFrameCounter == null || !mFrameCounter.stop()) return;
+        if (mMetrics != null && mFrameCounter.getFrameCount() > 0) {
+            mMetrics.onGestureFrames(mFrameCounter.getFrameCount(),
+                    mFrameCounter.getDroppedFrameCount());
+        }
+    }
+
+    private void reportCollapse(long startTime, int itemCount) {
+        if (mMetrics != null) {
+            mMetrics.onCollapse(SystemClock.uptimeMillis() - startTime, itemCount);
+        }
+    }
+
+    /**
+     * Called by {@link RowAnimator} when a row animation ends, with the arguments of its end
+     * action.
+     */
+    @SuppressWarnings("unchecked")
+    private void onAnimationEnd(int action, View view, Object arg, int intArg, long longArg) {
+        // A null view means the row was recycled while animating, it now shows another item
+        switch (action) {
+            case ANIMATION_END_DESTROY_LAYER:
+                ((RowContainer) arg).destroySwipingLayer();
+                break;
+            case ANIMATION_END_DISMISS: {
+                SlidingDismiss slidingDismiss = (SlidingDismiss) arg;
+                RowContainer rowContainer = slidingDismiss.rowContainer;
+                int position = slidingDismiss.position;
+                long itemId = slidingDismiss.itemId;
+                recycleSlidingDismiss(slidingDismiss);
+                rowContainer.destroySwipingLayer();
+                performDismiss(view == null ? null : rowContainer, position, itemId);
+                break;
+            }
+            case ANIMATION_END_BULK_DISMISS:
+                performBulkDismiss((BulkDismiss) arg, longArg);
+                break;
+            case ANIMATION_END_COLLAPSE:
+                finishCollapseByHeight((List<PendingDismissData>) arg, longArg);
+                break;
+            case ANIMATION_END_RESTORE_ROW:
+                if (view != null) resetRowContainer((RowContainer) arg);
+                break;
+        }
+    }
+
+    /**
+     * Lets go of a row that is about to show another item: its gesture is cancelled, its
+     * animations jump to their end and the pending items it showed forget it.
+     */
+    private void releaseRow(View row) {
+        RowContainer rowContainer = findRowContainer(row);
+        if (rowContainer == null) return;
+        rowContainer.boundItemId = NO_BOUND_ITEM;
+        if (rowContainer == mRowContainer) {
+            finishFrameRendering();
+            mGesture.cancel();
+            resetGesture();
+        }
+        mRowAnimator.detach(rowContainer.container);
+        mRowAnimator.detach(rowContainer.dataContainer);
+        if (rowContainer.undoContainer != null) {
+            mRowAnimator.detach(rowContainer.undoContainer);
+        }
+        rowContainer.destroySwipingLayer();
+        for (int i = 0, size = mPendingDismisses.size(); i < size; i++) {
+            PendingDismissData pendingDismiss = mPendingDismisses.get(i);
+            if (pendingDismiss.rowContainer == rowContainer) pendingDismiss.rowContainer = null;
+        }
+        for (BulkDismiss bulkDismiss : mBulkDismisses) {
+            int index = bulkDismiss.rowContainers.indexOf(rowContainer);
+            if (index >= 0) bulkDismiss.rowContainers.set(index, null);
+        }
+        resetRowContainer(rowContainer);
+    }
+
+    /**
+     * Shows the undo state again on a row attached for a pending item that has no row.
+     */
+    private void restorePendingRow(View row) {
+        int position = mRecyclerView.getChildPosition(row);
+        if (position < 0) return;
+        PendingDismissData pendingDismiss = findPendingDismiss(position);
+        if (pendingDismiss == null || pendingDismiss.rowContainer != null) return;
+        RowContainer rowContainer = getRowContainer(row);
+        pendingDismiss.rowContainer = rowContainer;
+        showPendingState(rowContainer);
+    }
+
+    /**
+     * Moves the data container of a row out of sight and shows its undo affordance, without
+     * animating.
+     */
+    private void showPendingState(RowContainer rowContainer) {
+        refreshViewWidth();
+        rowContainer.dataContainerHasBeenDismissed = true;
+        rowContainer.dataContainer.setTranslationX(mViewWidth);
+        rowContainer.dataContainer.setAlpha(0);
+        if (mUndoMode != UNDO_MODE_DECORATION) {
+            rowContainer.requireUndoContainer().setVisibility(View.VISIBLE);
+        }
+    }
+
+    private void setSwipeState(long itemId, int state) {
+        if (mRecyclerView.hasStableIds()) mSwipeStates.setState(itemId, state);
+    }
+
+    /**
+     * Returns the {@link RowContainer} of the given row, creating and caching it in the row's tags
+     * the first time it is needed.
+     */
+    private RowContainer getRowContainer(View child) {
+        RowContainer rowContainer = findRowContainer(child);
+        return rowContainer != null ? rowContainer : createRowContainer(child);
+    }
+
+    /**
+     * Returns the {@link RowContainer} cached in the given row's tags, or null.
+     */
+    @SuppressWarnings("unchecked")
+    private RowContainer findRowContainer(View child) {
+        // Only this listener tags its rows, so a row container found there has its type arguments
+        Object tag = child.getTag(R.id.swipe_row_container);
+        return tag instanceof SwipeToDismissTouchListener.RowContainer ? (RowContainer) tag : null;
+    }
+
+    private RowContainer createRowContainer(View child) {
+        RowContainer rowContainer = new RowContainer(child);
+        child.setTag(R.id.swipe_row_container, rowContainer);
+        return rowContainer;
+    }
+
+    class PendingDismissData extends PendingDismiss {
+        public final long key;
+        public RowContainer rowContainer;
+
+        public PendingDismissData(int position, long itemId, RowContainer rowContainer) {
+            super(position, itemId);
+            this.key = mNextPendingDismissKey++;
+            this.rowContainer= rowContainer;
+        }
+    }
+
+    private void performDismiss(RowContainer dismissView, int dismissPosition, long dismissItemId) {
+        if (mRecyclerView.hasStableIds()) {
+            // The data set may have changed while the row was sliding out
+            dismissPosition = mRecyclerView.getPositionForItemId(dismissItemId);
+            if (dismissPosition < 0) {
+                resetRowContainer(dismissView);
+                return;
             }
+        }
+        // Swiping the undo container of a pending row confirms every pending row at once.
+        // Otherwise the row joins the pending rows, making room for it first if needed. It is
+        // added before the others are committed, so its position follows their removal.
+        if (findPendingDismiss(dismissPosition) != null) {
+            processPendingDismisses();
+        } else if (mPendingDismisses.isFull()) {
+            List<PendingDismissData> pendingDismisses = mPendingDismisses.drain();
+            mDismissTimers.clear();
+            addPendingDismiss(dismissView, dismissPosition, dismissItemId);
+            processPendingDismisses(pendingDismisses);
         } else {
-            addPendingDismiss(dismissView, dismissPosition);
+            addPendingDismiss(dismissView, dismissPosition, dismissItemId);
         }
     }
 
-    private void addPendingDismiss(RowContainer dismissView, int dismissPosition) {
-        dismissView.dataContainerHasBeenDismissed = true;
-        dismissView.undoContainer.setVisibility(View.VISIBLE);
-        mPendingDismiss = new PendingDismissData(dismissPosition, dismissView);
+    /**
+     * @param dismissView The row, or null for a row dismissed while off screen.
+     */
+    private void addPendingDismiss(RowContainer dismissView, int dismissPosition,
+                                   long dismissItemId) {
+        if (dismissView != null) {
+            dismissView.dataContainerHasBeenDismissed = true;
+            if (mUndoMode == UNDO_MODE_DECORATION) {
+                mRecyclerView.invalidate();
+            } else {
+                dismissView.requireUndoContainer().setVisibility(View.VISIBLE);
+            }
+        }
+        PendingDismissData pendingDismiss =
+                new PendingDismissData(dismissPosition, dismissItemId, dismissView);
+        mPendingDismisses.add(pendingDismiss);
+        setSwipeState(dismissItemId, SwipeStateStore.STATE_PENDING_UNDO);
         // Notify the callbacks
         mCallbacks.onPendingDismiss(mRecyclerView, dismissPosition);
+        if (mMetrics != null && dismissView != null) {
+            mMetrics.onPendingDismiss(SystemClock.uptimeMillis() - dismissView.releaseTime);
+        }
         // Automatically dismiss the item after a certain delay
-        if(mDismissDelayMillis >= 0)
-            mHandler.removeCallbacks(mDismissRunnable);
-            mHandler.postDelayed(mDismissRunnable, mDismissDelayMillis);
+        if (mDismissDelayMillis >= 0) {
+            mDismissTimers.schedule(pendingDismiss.key,
+                    SystemClock.uptimeMillis() + mDismissDelayMillis);
+            scheduleDismissRunnable();
+        }
+    }
+
+    /**
+     * Dismisses the pending items the next time the main looper runs out of messages.
+     */
+    private void queueIdleCommit() {
+        if (mIdleCommitQueued || !existPendingDismisses()) return;
+        mIdleCommitQueued = true;
+        Looper.myQueue().addIdleHandler(mIdleCommitHandler);
+    }
+
+    private void cancelIdleCommit() {
+        if (!mIdleCommitQueued) return;
+        mIdleCommitQueued = false;
+        Looper.myQueue().removeIdleHandler(mIdleCommitHandler);
+    }
+
+    /**
+     * Posts the single message dismissing pending items for the earliest of their deadlines.
+     */
+    private void scheduleDismissRunnable() {
+        long nextDismissTime = mDismissTimers.nextDeadline();
+        if (nextDismissTime == mScheduledDismissTime) return;
+        mHandler.removeCallbacks(mDismissRunnable);
+        mScheduledDismissTime = nextDismissTime;
+        if (nextDismissTime != TimerWheel.NO_DEADLINE) {
+            mHandler.postAtTime(mDismissRunnable, nextDismissTime);
+        }
     }
 
     /**
-     * If a view was dismissed and the undo container is showing it will proceed with the final
-     * dismiss of the item.
+     * Commits, as one batch, the pending items whose automatic dismiss delay has passed.
+     */
+    private void processExpiredPendingDismisses() {
+        // The expired items stay in the wheel and are committed with the others once idle
+        if (mCommitPolicy == COMMIT_POLICY_IDLE
+                && mScrollState != AbsListView.OnScrollListener.SCROLL_STATE_IDLE) {
+            return;
+        }
+        int expiredCount = mDismissTimers.expire(SystemClock.uptimeMillis());
+        if (expiredCount > 0) {
+            // Removed in a single pass, however many expired at the same time
+            for (int i = 0; i < expiredCount; i++) {
+                mExpiredKeys.put(mDismissTimers.getExpiredId(i), 1);
+            }
+            List<PendingDismissData> expired = new ArrayList<>(expiredCount);
+            mPendingDismisses.removeMatching(mExpiredFilter, expired);
+            mExpiredKeys.clear();
+            if (!expired.isEmpty()) processPendingDismisses(expired);
+        }
+        scheduleDismissRunnable();
+    }
+
+    private PendingDismissData findPendingDismiss(int position) {
+        if (position < 0) return null;
+        return mRecyclerView.hasStableIds()
+                ? mPendingDismisses.findByItemId(mRecyclerView.getItemId(position))
+                : mPendingDismisses.findByPosition(position);
+    }
+
+    /**
+     * With stable ids, translates the pending items back to their current positions, dropping
+     * the ones that are no longer in the data set.
+     */
+    private void refreshPendingPositions(List<PendingDismissData> pendingDismisses) {
+        if (!mRecyclerView.hasStableIds()) return;
+        for (int i = pendingDismisses.size() - 1; i >= 0; i--) {
+            PendingDismissData pendingDismiss = pendingDismisses.get(i);
+            int position = mRecyclerView.getPositionForItemId(pendingDismiss.itemId);
+            if (position < 0) {
+                resetRowContainer(pendingDismiss.rowContainer);
+                mSwipeStates.setState(pendingDismiss.itemId, SwipeStateStore.STATE_IDLE);
+                pendingDismisses.remove(i);
+            } else {
+                pendingDismiss.position = position;
+            }
+        }
+    }
+
+    /**
+     * Dismisses the row at the given position from code, as if it had been swiped away.
+     * @see #dismissRange(int, int)
+     */
+    public void dismiss(int position) {
+        dismissRange(position, position + 1);
+    }
+
+    /**
+     * Dismisses the rows from one position to another from code. The visible rows slide out
+     * together, driven by a single animator, and the rows that are off screen are dismissed
+     * without any animation. All of them then wait for confirmation like swiped rows, so they can
+     * be undone, and are committed in the same batch, even beyond the maximum number of pending
+     * rows. Rows that can't be dismissed or are already on their way out are skipped, as are
+     * positions outside the data set.
+     * @param fromPosition The first position to dismiss.
+     * @param toPosition The position after the last one to dismiss.
+     */
+    public void dismissRange(int fromPosition, int toPosition) {
+        fromPosition = Math.max(0, fromPosition);
+        toPosition = Math.min(toPosition, mRecyclerView.getItemCount());
+        int[] positions = new int[Math.max(0, toPosition - fromPosition)];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = fromPosition + i;
+        }
+        dismissPositions(positions);
+    }
+
+    /**
+     * Dismisses from code the rows matching a predicate, like {@link #dismissRange(int, int)}.
+     * @param predicate Tells which positions of the data set to dismiss.
+     */
+    public void dismissWhere(PositionPredicate predicate) {
+        int itemCount = mRecyclerView.getItemCount();
+        int[] positions = new int[itemCount];
+        int count = 0;
+        for (int position = 0; position < itemCount; position++) {
+            if (predicate.apply(position)) positions[count++] = position;
+        }
+        int[] matchingPositions = new int[count];
+        System.arraycopy(positions, 0, matchingPositions, 0, count);
+        dismissPositions(matchingPositions);
+    }
+
+    /**
+     * @param sortedPositions The positions to dismiss, in ascending order.
+     */
+    private void dismissPositions(int[] sortedPositions) {
+        refreshViewWidth();
+        final int[] positions = new int[sortedPositions.length];
+        final long[] itemIds = new long[sortedPositions.length];
+        int count = 0;
+        for (int position : sortedPositions) {
+            if (!mCallbacks.canDismiss(position)) continue;
+            long itemId = mRecyclerView.getItemId(position);
+            if (!isBeingDismissed(position, itemId)) {
+                itemIds[count] = itemId;
+                positions[count++] = position;
+            }
+        }
+        if (count == 0) return;
+
+        // Find the visible rows, which slide out, the others have no row container
+        final List<RowContainer> rowContainers =
+                new ArrayList<>(Collections.<RowContainer>nCopies(count, null));
+        final List<View> slidingViews = new ArrayList<>();
+        for (int i = 0, childCount = mRecyclerView.getChildCount(); i < childCount; i++) {
+            View child = mRecyclerView.getChildAt(i);
+            int index = Arrays.binarySearch(positions, 0, count,
+                    mRecyclerView.getChildPositionAt(i));
+            if (index < 0) continue;
+            RowContainer rowContainer = getRowContainer(child);
+            if (rowContainer == mRowContainer) {
+                // The row can't be swiped and dismissed at the same time
+                finishFrameRendering();
+                mGesture.cancel();
+                resetGesture();
+            }
+            rowContainer.dataContainerHasBeenDismissed = false;
+            rowContainers.set(index, rowContainer);
+            slidingViews.add(rowContainer.dataContainer);
+            if (mUseHardwareLayers) rowContainer.buildSwipingLayer();
+        }
+
+        for (int i = 0, slidingCount = slidingViews.size(); i < slidingCount; i++) {
+            int animation = mRowAnimator.animate(slidingViews.get(i), mAnimationTime,
+                    DEFAULT_INTERPOLATOR);
+            mRowAnimator.translationX(animation, mViewWidth);
+            mRowAnimator.alpha(animation, 0);
+        }
+        // The rows are added to the pending ones together once all of them slid out
+        int animation = mRowAnimator.animate(null, mAnimationTime, null);
+        BulkDismiss bulkDismiss = new BulkDismiss(positions, itemIds, rowContainers, count);
+        mBulkDismisses.add(bulkDismiss);
+        mRowAnimator.endAction(animation, ANIMATION_END_BULK_DISMISS, bulkDismiss, 0,
+                SystemClock.uptimeMillis());
+    }
+
+    private final class BulkDismiss {
+        final int[] positions;
+        final long[] itemIds;
+        final List<RowContainer> rowContainers;
+        final int count;
+
+        BulkDismiss(int[] positions, long[] itemIds, List<RowContainer> rowContainers, int count) {
+            this.positions = positions;
+            this.itemIds = itemIds;
+            this.rowContainers = rowContainers;
+            this.count = count;
+        }
+    }
+
+    private void performBulkDismiss(BulkDismiss bulkDismiss, long startTime) {
+        mBulkDismisses.remove(bulkDismiss);
+        int[] positions = bulkDismiss.positions;
+        long[] itemIds = bulkDismiss.itemIds;
+        List<RowContainer> rowContainers = bulkDismiss.rowContainers;
+        int count = bulkDismiss.count;
+        int addedCount = 0;
+        for (int i = 0; i < count; i++) {
+            RowContainer rowContainer = rowContainers.get(i);
+            if (rowContainer != null) {
+                rowContainer.destroySwipingLayer();
+                rowContainer.releaseTime = startTime;
+            }
+            if (mRecyclerView.hasStableIds()) {
+                // The data set may have changed while the rows were sliding out
+                positions[i] = mRecyclerView.getPositionForItemId(itemIds[i]);
+                if (positions[i] < 0) {
+                    resetRowContainer(rowContainer);
+                    continue;
+                }
+            }
+            // Rows dismissed meanwhile by other means are left to them
+            if (isBeingDismissed(positions[i], itemIds[i])) {
+                positions[i] = ListView.INVALID_POSITION;
+            } else {
+                addedCount++;
+            }
+        }
+        // Make room for all of them at once, they are committed together later
+        List<PendingDismissData> overflow = null;
+        if (!mPendingDismisses.isEmpty()
+                && mPendingDismisses.size() + addedCount > mPendingDismisses.getMaxSize()) {
+            overflow = mPendingDismisses.drain();
+            mDismissTimers.clear();
+        }
+        for (int i = 0; i < count; i++) {
+            if (positions[i] < 0) continue;
+            addPendingDismiss(rowContainers.get(i), positions[i], itemIds[i]);
+        }
+        if (overflow != null) {
+            processPendingDismisses(overflow);
+        }
+    }
+
+    /**
+     * Whether a row is already pending or sliding out, by stable id if the data set has them.
+     */
+    private boolean isBeingDismissed(int position, long itemId) {
+        if (findPendingDismiss(position) != null) return true;
+        boolean hasStableIds = mRecyclerView.hasStableIds();
+        for (int i = 0, size = mBulkDismisses.size(); i < size; i++) {
+            BulkDismiss bulkDismiss = mBulkDismisses.get(i);
+            for (int j = 0; j < bulkDismiss.count; j++) {
+                if (hasStableIds ? bulkDismiss.itemIds[j] == itemId
+                        : bulkDismiss.positions[j] == position) {
+                    return true;
+                }
+            }
+        }
+        for (int i = 0, size = mSlidingDismisses.size(); i < size; i++) {
+            SlidingDismiss slidingDismiss = mSlidingDismisses.get(i);
+            if (hasStableIds ? slidingDismiss.itemId == itemId
+                    : slidingDismiss.position == position) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * If any views were dismissed and their undo containers are showing it will proceed with the
+     * final dismiss of all of them in a single batch.
      * @return whether there were any pending rows to be dismissed.
      */
     public boolean processPendingDismisses() {
         boolean existPendingDismisses = existPendingDismisses();
-        if (existPendingDismisses) processPendingDismisses(mPendingDismiss);
+        if (existPendingDismisses) {
+            mDismissTimers.clear();
+            scheduleDismissRunnable();
+            processPendingDismisses(mPendingDismisses.drain());
+        }
         return existPendingDismisses;
     }
 
@@ -439,66 +1574,301 @@ public class SwipeToDismissTouchListener<SomeCollectionView extends ViewAdapter>
      * @return whether there are any pending rows to be dismissed.
      */
     public boolean existPendingDismisses() {
-        return mPendingDismiss != null && mPendingDismiss.rowContainer.dataContainerHasBeenDismissed;
+        for (int i = 0; i < mPendingDismisses.size(); i++) {
+            RowContainer rowContainer = mPendingDismisses.get(i).rowContainer;
+            // Rows dismissed while off screen have no row container
+            if (rowContainer == null || rowContainer.dataContainerHasBeenDismissed) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether the row at the given position has been dismissed and is waiting for confirmation.
+     * @param position The position of the row in the adapter.
+     * @return whether the row is pending to be dismissed.
+     */
+    public boolean isPendingDismiss(int position) {
+        return findPendingDismiss(position) != null;
+    }
+
+    /**
+     * Like {@link #isPendingDismiss(int)} for a row on screen, in O(1) without searching the
+     * pending items: from the swipe state store with stable ids, otherwise from the row itself.
+     */
+    boolean isRowPending(View row, long itemId) {
+        if (mRecyclerView.hasStableIds()) {
+            return mSwipeStates.getState(itemId) == SwipeStateStore.STATE_PENDING_UNDO;
+        }
+        RowContainer rowContainer = findRowContainer(row);
+        return rowContainer != null && rowContainer.dataContainerHasBeenDismissed;
     }
 
     /**
-     * If a view was dismissed and the undo container is showing it will undo and make the data
-     * container reappear.
+     * If any views were dismissed and their undo containers are showing it will undo all of them
+     * and make their data containers reappear.
      * @return whether there were any pending rows to be dismissed.
      */
     public boolean undoPendingDismiss() {
         boolean existPendingDismisses = existPendingDismisses();
-        if (existPendingDismisses) {
-            mPendingDismiss.rowContainer.undoContainer.setVisibility(View.GONE);
-            mPendingDismiss.rowContainer.dataContainer
-                    .animate()
-                    .translationX(0)
-                    .alpha(1)
-                    .setDuration(mAnimationTime)
-                    .setListener(null);
-            mPendingDismiss = null;
+        if (mMetrics != null && !mPendingDismisses.isEmpty()) {
+            mMetrics.onUndo(mPendingDismisses.size());
         }
+        for (PendingDismissData pendingDismiss : mPendingDismisses.drain()) {
+            undoPendingDismiss(pendingDismiss);
+        }
+        mDismissTimers.clear();
+        scheduleDismissRunnable();
         return existPendingDismisses;
     }
 
-    private void processPendingDismisses(final PendingDismissData pendingDismissData) {
-        mPendingDismiss = null;
-        final ViewGroup.LayoutParams lp = pendingDismissData.rowContainer.container.getLayoutParams();
-        final int originalHeight = pendingDismissData.rowContainer.container.getHeight();
+    /**
+     * If the row at the given position was dismissed and its undo container is showing it will
+     * undo it and make the data container reappear. Other pending rows are left untouched.
+     * @param position The position of the row in the adapter.
+     * @return whether the row was pending to be dismissed.
+     */
+    public boolean undoPendingDismiss(int position) {
+        PendingDismissData pendingDismiss = findPendingDismiss(position);
+        if (pendingDismiss != null) {
+            undoPendingDismiss(pendingDismiss);
+            mPendingDismisses.remove(pendingDismiss);
+            mDismissTimers.cancel(pendingDismiss.key);
+            scheduleDismissRunnable();
+            if (mMetrics != null) {
+                mMetrics.onUndo(1);
+            }
+        }
+        return pendingDismiss != null;
+    }
+
+    private void undoPendingDismiss(PendingDismissData pendingDismiss) {
+        setSwipeState(pendingDismiss.itemId, SwipeStateStore.STATE_IDLE);
+        if (pendingDismiss.rowContainer == null) return;
+        pendingDismiss.rowContainer.dataContainerHasBeenDismissed = false;
+        if (pendingDismiss.rowContainer.undoContainer != null) {
+            pendingDismiss.rowContainer.undoContainer.setVisibility(View.GONE);
+            pendingDismiss.rowContainer.releaseUndoContainer();
+        } else {
+            mRecyclerView.invalidate();
+        }
+        int animation = mRowAnimator.animate(pendingDismiss.rowContainer.dataContainer,
+                mAnimationTime, DEFAULT_INTERPOLATOR);
+        mRowAnimator.translationX(animation, 0);
+        mRowAnimator.alpha(animation, 1);
+        if (mUseHardwareLayers) {
+            mRowAnimator.withLayer(animation);
+        }
+    }
+
+    private void processPendingDismisses(final List<PendingDismissData> pendingDismisses) {
+        refreshPendingPositions(pendingDismisses);
+        Collections.sort(pendingDismisses);
+        for (PendingDismissData pendingDismiss : pendingDismisses) {
+            setSwipeState(pendingDismiss.itemId, SwipeStateStore.STATE_COMMITTING);
+        }
+        if (mMetrics != null) {
+            mMetrics.onCommit(pendingDismisses.size());
+        }
+        if (mCollapseMode == COLLAPSE_MODE_ITEM_ANIMATOR) {
+            collapseWithItemAnimator(pendingDismisses);
+        } else if (mCollapseMode == COLLAPSE_MODE_TRANSLATE) {
+            collapseByTranslation(pendingDismisses);
+        } else {
+            collapseByHeight(pendingDismisses);
+        }
+    }
+
+    private void collapseByHeight(final List<PendingDismissData> pendingDismisses) {
+        // Animate all the dismissed list items to zero-height together and fire the dismiss
+        // callback once the animation has completed. This triggers layout on each animation
+        // frame; see COLLAPSE_MODE_TRANSLATE for a cheaper alternative.
+        for (PendingDismissData pendingDismiss : pendingDismisses) {
+            RowContainer rowContainer = pendingDismiss.rowContainer;
+            if (rowContainer == null) continue;
+            rowContainer.heightBeforeCollapse = rowContainer.container.getHeight();
+            int animation = mRowAnimator.animate(rowContainer.container, mAnimationTime,
+                    DEFAULT_INTERPOLATOR);
+            mRowAnimator.height(animation, rowContainer.heightBeforeCollapse, 1);
+        }
+        mPendingDismisses.startCommit(pendingDismisses);
+        int animation = mRowAnimator.animate(null, mAnimationTime, null);
+        mRowAnimator.endAction(animation, ANIMATION_END_COLLAPSE, pendingDismisses, 0,
+                SystemClock.uptimeMillis());
+    }
+
+    private void finishCollapseByHeight(List<PendingDismissData> pendingDismisses,
+                                        long startTime) {
+        mPendingDismisses.finishCommit(pendingDismisses);
+        dispatchDismiss(pendingDismisses);
+        reportCollapse(startTime, pendingDismisses.size());
+        for (PendingDismissData pendingDismiss : pendingDismisses) {
+            RowContainer rowContainer = pendingDismiss.rowContainer;
+            // Rows recycled meanwhile have been restored already
+            if (rowContainer == null || rowContainer.heightBeforeCollapse == 0) continue;
+            // Restored on the next frame, once the rows have been removed from the adapter
+            int animation = mRowAnimator.animate(rowContainer.container, 0, null);
+            mRowAnimator.endAction(animation, ANIMATION_END_RESTORE_ROW, rowContainer, 0, 0);
+        }
+    }
 
-        ValueAnimator animator = ValueAnimator.ofInt(originalHeight, 1).setDuration(mAnimationTime);
+    private void collapseByTranslation(final List<PendingDismissData> pendingDismisses) {
+        // Remember where every visible row is before the dismissed rows are removed
+        final long startTime = SystemClock.uptimeMillis();
+        final int childCount = mRecyclerView.getChildCount();
+        if (childCount == 0) {
+            dispatchDismiss(pendingDismisses);
+            reportCollapse(startTime, pendingDismisses.size());
+            return;
+        }
+        final int firstPosition = mRecyclerView.getChildPositionAt(0);
+        final int[] oldTops = new int[childCount];
+        for (int i = 0; i < childCount; i++) {
+            oldTops[i] = mRecyclerView.getChildAt(i).getTop();
+        }
+        final int oldBottom = mRecyclerView.getChildAt(childCount - 1).getBottom();
+        final int[] removedPositions = new int[pendingDismisses.size()];
+        for (int i = 0; i < removedPositions.length; i++) {
+            // Ascending order, so the old positions can be rebuilt from the new ones below
+            PendingDismissData pendingDismiss = pendingDismisses.get(removedPositions.length - 1 - i);
+            removedPositions[i] = pendingDismiss.position;
+            resetRowContainer(pendingDismiss.rowContainer);
+        }
 
-        animator.addListener(new AnimatorListenerAdapter() {
+        // Removing the rows triggers a single layout pass, after which the remaining rows are moved
+        // back to where they were and slid into their new place
+        final ViewTreeObserver observer = mRecyclerView.getViewTreeObserver();
+        observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
             @Override
-            public void onAnimationEnd(Animator animation) {
-                if (mCallbacks.canDismiss(pendingDismissData.position))
-                    mCallbacks.onDismiss(mRecyclerView, pendingDismissData.position);
-                pendingDismissData.rowContainer.dataContainer.post(new Runnable() {
+            public boolean onPreDraw() {
+                observer.removeOnPreDrawListener(this);
+                // The rows are gone from the layout, the rest is only drawing
+                reportCollapse(startTime, pendingDismisses.size());
+                int lastDelta = 0;
+                for (int i = 0; i < mRecyclerView.getChildCount(); i++) {
+                    View child = mRecyclerView.getChildAt(i);
+                    int oldPosition = mRecyclerView.getChildPosition(child);
+                    for (int removedPosition : removedPositions) {
+                        if (removedPosition <= oldPosition) oldPosition++;
+                    }
+                    int oldIndex = oldPosition - firstPosition;
+                    if (oldIndex >= 0 && oldIndex < childCount) {
+                        lastDelta = oldTops[oldIndex] - child.getTop();
+                    } else if (oldIndex >= childCount) {
+                        // Rows that were not visible before come in from below the old last row
+                        lastDelta = Math.max(lastDelta, oldBottom - child.getTop());
+                    }
+                    if (lastDelta != 0) {
+                        child.setTranslationY(lastDelta);
+                        int animation = mRowAnimator.animate(child, mAnimationTime,
+                                DEFAULT_INTERPOLATOR);
+                        mRowAnimator.translationY(animation, lastDelta, 0);
+                    }
+                }
+                return true;
+            }
+        });
+        dispatchDismiss(pendingDismisses);
+    }
+
+    private void resetRowContainer(RowContainer rowContainer) {
+        if (rowContainer == null) return;
+        rowContainer.dataContainerHasBeenDismissed = false;
+        rowContainer.dataContainer.setTranslationX(0);
+        rowContainer.dataContainer.setAlpha(1);
+        if (rowContainer.undoContainer != null) {
+            rowContainer.undoContainer.setVisibility(View.GONE);
+            rowContainer.undoContainer.setTranslationX(0);
+            rowContainer.undoContainer.setAlpha(1);
+            rowContainer.releaseUndoContainer();
+        }
+        if (rowContainer.heightBeforeCollapse != 0) {
+            ViewGroup.LayoutParams lp = rowContainer.container.getLayoutParams();
+            lp.height = rowContainer.heightBeforeCollapse;
+            rowContainer.container.setLayoutParams(lp);
+            rowContainer.heightBeforeCollapse = 0;
+        }
+    }
+
+    private void collapseWithItemAnimator(final List<PendingDismissData> pendingDismisses) {
+        final long startTime = SystemClock.uptimeMillis();
+        int[] reverseSortedPositions = dispatchDismiss(pendingDismisses);
+        ((NotifyingViewAdapter) mRecyclerView).notifyItemsRemoved(reverseSortedPositions,
+                new Runnable() {
                     @Override
                     public void run() {
-                        pendingDismissData.rowContainer.dataContainer.setTranslationX(0);
-                        pendingDismissData.rowContainer.dataContainer.setAlpha(1);
-                        pendingDismissData.rowContainer.undoContainer.setVisibility(View.GONE);
-                        pendingDismissData.rowContainer.undoContainer.setTranslationX(0);
-                        pendingDismissData.rowContainer.undoContainer.setAlpha(1);
-
-                        lp.height = originalHeight;
-                        pendingDismissData.rowContainer.container.setLayoutParams(lp);
+                        for (PendingDismissData pendingDismiss : pendingDismisses) {
+                            resetRowContainer(pendingDismiss.rowContainer);
+                        }
+                        reportCollapse(startTime, pendingDismisses.size());
                     }
                 });
-            }
-        });
+    }
 
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                lp.height = (Integer) valueAnimator.getAnimatedValue();
-                pendingDismissData.rowContainer.container.setLayoutParams(lp);
+    /**
+     * Informs the callbacks about a committed batch, sorted by descending position.
+     * @return the positions that were actually dismissed, in descending order.
+     */
+    private int[] dispatchDismiss(List<PendingDismissData> reverseSortedPendingDismisses) {
+        int[] positions = new int[reverseSortedPendingDismisses.size()];
+        long[] itemIds = new long[positions.length];
+        int count = 0;
+        for (PendingDismissData pendingDismiss : reverseSortedPendingDismisses) {
+            setSwipeState(pendingDismiss.itemId, SwipeStateStore.STATE_IDLE);
+            if (mCallbacks.canDismiss(pendingDismiss.position)) {
+                itemIds[count] = pendingDismiss.itemId;
+                positions[count++] = pendingDismiss.position;
             }
-        });
+        }
+        int[] reverseSortedPositions = new int[count];
+        System.arraycopy(positions, 0, reverseSortedPositions, 0, count);
+        if (count == 0) return reverseSortedPositions;
+        // The rows still pending, collapsing or sliding out move up along with the rest of the
+        // data set
+        mPendingDismisses.onItemsRemoved(reverseSortedPositions);
+        shiftDismissingPositions(reverseSortedPositions);
+        if (mBatchCallbacks != null) {
+            mBatchCallbacks.onDismiss(mRecyclerView, reverseSortedPositions);
+        } else {
+            for (int position : reverseSortedPositions) {
+                mCallbacks.onDismiss(mRecyclerView, position);
+            }
+        }
+        // Without stable ids the item ids are positions or NO_ID, nothing a sink could commit
+        if (mCommitPipeline != null && mRecyclerView.hasStableIds()) {
+            for (int i = 0; i < count; i++) {
+                mCommitPipeline.enqueue(itemIds[i]);
+            }
+        }
+        return reverseSortedPositions;
+    }
 
-        animator.start();
+    /**
+     * Moves the rows sliding out up past a dispatched batch, as well as the row being swiped,
+     * which is let go of if the batch removed it.
+     */
+    private void shiftDismissingPositions(int[] reverseSortedPositions) {
+        if (mBulkDismisses.isEmpty() && mSlidingDismisses.isEmpty()
+                && mDownPosition == ListView.INVALID_POSITION) {
+            return;
+        }
+        mDispatchedPositions.removeCurrent(reverseSortedPositions);
+        if (mDownPosition != ListView.INVALID_POSITION) {
+            mDownPosition = mDispatchedPositions.isRemoved(mDownPosition)
+                    ? ListView.INVALID_POSITION
+                    : mDispatchedPositions.currentPosition(mDownPosition);
+        }
+        for (int i = 0, size = mBulkDismisses.size(); i < size; i++) {
+            BulkDismiss bulkDismiss = mBulkDismisses.get(i);
+            for (int j = 0; j < bulkDismiss.count; j++) {
+                bulkDismiss.positions[j] =
+                        mDispatchedPositions.currentPosition(bulkDismiss.positions[j]);
+            }
+        }
+        for (int i = 0, size = mSlidingDismisses.size(); i < size; i++) {
+            SlidingDismiss slidingDismiss = mSlidingDismisses.get(i);
+            slidingDismiss.position =
+                    mDispatchedPositions.currentPosition(slidingDismiss.position);
+        }
+        mDispatchedPositions.clear();
     }
 }
-
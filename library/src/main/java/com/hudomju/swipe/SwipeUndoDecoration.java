@@ -0,0 +1,157 @@
+package com.hudomju.swipe;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.support.v4.view.ViewCompat;
+import android.support.v7.widget.RecyclerView;
+import android.util.TypedValue;
+import android.view.View;
+
+/**
+ * Draws the swipe background and the undo affordance of a
+ * {@link android.support.v7.widget.RecyclerView} underneath its rows, for a
+ * {@link SwipeToDismissTouchListener} set to
+ * {@link SwipeToDismissTouchListener#UNDO_MODE_DECORATION}. Rows then need no undo container.
+ *
+ * <p>Taps on the undo label are handled by passing this decoration to
+ * {@link SwipeableItemClickListener#setUndoDecoration(SwipeUndoDecoration)}.</p>
+ */
+public class SwipeUndoDecoration extends RecyclerView.ItemDecoration {
+
+    private static final float TEXT_SIZE_SP = 16;
+    private static final float PADDING_DP = 16;
+    private static final int DEFAULT_BACKGROUND_COLOR = Color.GRAY;
+    private static final int DEFAULT_MESSAGE_COLOR = Color.WHITE;
+    private static final int DEFAULT_UNDO_COLOR = Color.YELLOW;
+
+    private final SwipeToDismissTouchListener<?> mTouchListener;
+    private final Paint mBackgroundPaint = new Paint();
+    private final Paint mMessagePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mUndoPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final int mPadding;
+    private String mMessage;
+    private String mUndoLabel;
+    private float mUndoLabelWidth;
+    private Drawable mIcon;
+
+    public SwipeUndoDecoration(Context context, SwipeToDismissTouchListener<?> touchListener) {
+        this(context, touchListener, DEFAULT_BACKGROUND_COLOR, DEFAULT_MESSAGE_COLOR,
+                DEFAULT_UNDO_COLOR);
+    }
+
+    /**
+     * @param backgroundColor The color drawn underneath swiped and pending rows.
+     * @param messageColor The color of the message of pending rows.
+     * @param undoColor The color of the undo label of pending rows.
+     */
+    public SwipeUndoDecoration(Context context, SwipeToDismissTouchListener<?> touchListener,
+                               int backgroundColor, int messageColor, int undoColor) {
+        mTouchListener = touchListener;
+        float textSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, TEXT_SIZE_SP,
+                context.getResources().getDisplayMetrics());
+        mPadding = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, PADDING_DP,
+                context.getResources().getDisplayMetrics());
+        mBackgroundPaint.setColor(backgroundColor);
+        mMessagePaint.setColor(messageColor);
+        mMessagePaint.setTextSize(textSize);
+        mUndoPaint.setColor(undoColor);
+        mUndoPaint.setTextSize(textSize);
+        mUndoPaint.setTextAlign(Paint.Align.RIGHT);
+        mMessage = context.getString(R.string.swipe_deleted);
+        setUndoLabel(context.getString(R.string.swipe_undo));
+    }
+
+    public void setBackgroundColor(int color) {
+        mBackgroundPaint.setColor(color);
+    }
+
+    public void setMessage(String message, int color) {
+        mMessage = message;
+        mMessagePaint.setColor(color);
+    }
+
+    public void setUndoLabel(String undoLabel, int color) {
+        setUndoLabel(undoLabel);
+        mUndoPaint.setColor(color);
+    }
+
+    /**
+     * Set an icon drawn on the uncovered side of a row while it is being swiped.
+     * @param icon The icon, or null to draw only the background.
+     */
+    public void setIcon(Drawable icon) {
+        mIcon = icon;
+    }
+
+    private void setUndoLabel(String undoLabel) {
+        mUndoLabel = undoLabel;
+        mUndoLabelWidth = mUndoPaint.measureText(undoLabel);
+    }
+
+    @Override
+    public void onDraw(Canvas c, RecyclerView parent, RecyclerView.State state) {
+        boolean moving = false;
+        for (int i = 0, count = parent.getChildCount(); i < count; i++) {
+            View child = parent.getChildAt(i);
+            // Rows animating out of the adapter have no position left
+            if (parent.getChildAdapterPosition(child) == RecyclerView.NO_POSITION) continue;
+            float translationX = child.getTranslationX();
+            boolean pending = mTouchListener.isRowPending(child, parent.getChildItemId(child));
+            if (translationX == 0 && !pending) continue;
+
+            float top = child.getTop() + child.getTranslationY();
+            float bottom = top + child.getHeight();
+            if (pending) {
+                c.drawRect(child.getLeft(), top, child.getRight(), bottom, mBackgroundPaint);
+                float baseline =
+                        (top + bottom - mMessagePaint.ascent() - mMessagePaint.descent()) / 2;
+                c.drawText(mMessage, child.getLeft() + mPadding, baseline, mMessagePaint);
+                c.drawText(mUndoLabel, child.getRight() - mPadding, baseline, mUndoPaint);
+                continue;
+            }
+
+            // The row is being swiped or animated, so this has to be drawn again next frame
+            moving = true;
+            int left = translationX > 0 ? child.getLeft() : (int) (child.getRight() + translationX);
+            int right = translationX > 0
+                    ? (int) (child.getLeft() + translationX) : child.getRight();
+            c.drawRect(left, top, right, bottom, mBackgroundPaint);
+            if (mIcon != null) {
+                int iconTop = (int) (top + bottom - mIcon.getIntrinsicHeight()) / 2;
+                int iconLeft = translationX > 0 ? child.getLeft() + mPadding
+                        : child.getRight() - mPadding - mIcon.getIntrinsicWidth();
+                mIcon.setBounds(iconLeft, iconTop, iconLeft + mIcon.getIntrinsicWidth(),
+                        iconTop + mIcon.getIntrinsicHeight());
+                c.save();
+                c.clipRect(left, top, right, bottom);
+                mIcon.draw(c);
+                c.restore();
+            }
+        }
+        if (moving) {
+            ViewCompat.postInvalidateOnAnimation(parent);
+        }
+    }
+
+    /**
+     * Undoes the pending row whose undo label is under the given point, if any.
+     * @return whether a row was undone.
+     */
+    boolean onTap(RecyclerView parent, float x, float y) {
+        for (int i = 0, count = parent.getChildCount(); i < count; i++) {
+            View child = parent.getChildAt(i);
+            int position = parent.getChildAdapterPosition(child);
+            if (position == RecyclerView.NO_POSITION) continue;
+            float top = child.getTop() + child.getTranslationY();
+            float undoLeft = child.getRight() - mUndoLabelWidth - 2 * mPadding;
+            if (y < top || y > top + child.getHeight() || x < undoLeft || x > child.getRight()) {
+                continue;
+            }
+            return mTouchListener.undoPendingDismiss(position);
+        }
+        return false;
+    }
+}
@@ -13,6 +13,8 @@ public class SwipeableItemClickListener implements RecyclerView.OnItemTouchListe
 
     private final GestureDetector mGestureDetector;
 
+    private SwipeUndoDecoration mUndoDecoration;
+
     public SwipeableItemClickListener(Context context, OnItemClickListener listener) {
         mListener = listener;
         mGestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
@@ -23,11 +25,26 @@ public class SwipeableItemClickListener implements RecyclerView.OnItemTouchListe
         });
     }
 
+    /**
+     * Set the decoration drawing the undo affordance, so taps on its undo label undo the pending
+     * row instead of being reported as item clicks.
+     * @param undoDecoration The decoration, or null if rows hold their own undo container.
+     */
+    public void setUndoDecoration(SwipeUndoDecoration undoDecoration) {
+        mUndoDecoration = undoDecoration;
+    }
+
     @Override
     public boolean onInterceptTouchEvent(RecyclerView view, MotionEvent e) {
+        if (!mGestureDetector.onTouchEvent(e)) {
+            return false;
+        }
+        if (mUndoDecoration != null && mUndoDecoration.onTap(view, e.getX(), e.getY())) {
+            return false;
+        }
         View childView = view.findChildViewUnder(e.getX(), e.getY());
-        int position = view.getChildPosition(childView);
-        if (childView != null && mListener != null && mGestureDetector.onTouchEvent(e)) {
+        if (childView != null && mListener != null) {
+            int position = view.getChildPosition(childView);
             mListener.onItemClick(findChildViewLeaf(childView, e), position);
         }
         return false;
@@ -0,0 +1,56 @@
+package com.hudomju.swipe.adapter;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Finds the child of a {@link ViewGroup} under a given point in logarithmic time, as long as the
+ * children are laid out from top to bottom in the order of their indexes.
+ */
+final class ChildHitTester {
+
+    private ChildHitTester() {
+    }
+
+    /**
+     * Binary searches the children by their top edge, then checks the children that share the row
+     * of the point, e.g. the cells of a grid, which may have different heights.
+     *
+     * @return The index of the child under the point, or -1 if there is none.
+     */
+    static int findChildIndexUnder(ViewGroup parent, int x, int y) {
+        // Find the last child whose top edge is above the point
+        int low = 0;
+        int high = parent.getChildCount() - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            View child = parent.getChildAt(middle);
+            if (child.getTop() + child.getTranslationY() <= y) {
+                candidate = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (candidate < 0) return -1;
+        // Walk back over the children of the same row, which may be shorter than the point's row
+        View candidateChild = parent.getChildAt(candidate);
+        float rowTop = candidateChild.getTop() + candidateChild.getTranslationY();
+        for (int i = candidate; i >= 0; i--) {
+            View child = parent.getChildAt(i);
+            float top = child.getTop() + child.getTranslationY();
+            if (top < rowTop) {
+                break;
+            }
+            if (top + child.getHeight() <= y) {
+                continue;
+            }
+            float translationX = child.getTranslationX();
+            if (x >= child.getLeft() + translationX && x < child.getRight() + translationX) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,20 @@
+package com.hudomju.swipe.adapter;
+
+import android.view.View;
+
+/**
+ * A {@link ViewAdapter} whose UI element lets a touch listener claim a gesture by intercepting it,
+ * so the UI element cancels its own handling of the gesture without being sent a synthetic cancel
+ * event.
+ */
+public interface InterceptingViewAdapter extends ViewAdapter {
+
+    /**
+     * Wraps a touch listener into the UI element's own listener type. Touch events are passed to
+     * the given listener until it returns true, which intercepts the rest of the gesture.
+     *
+     * @param listener The listener to receive the touch events.
+     * @return the listener to be registered with the UI element.
+     */
+    Object makeItemTouchListener(View.OnTouchListener listener);
+}
@@ -3,7 +3,9 @@ package com.hudomju.swipe.adapter;
 import android.content.Context;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.AbsListView;
+import android.widget.ListAdapter;
 import android.widget.ListView;
 
 public class ListViewAdapter implements ViewAdapter {
@@ -39,16 +41,67 @@ public class ListViewAdapter implements ViewAdapter {
         return mListView.getChildAt(index);
     }
 
+    @Override
+    public int findChildIndexUnder(int x, int y) {
+        return ChildHitTester.findChildIndexUnder(mListView, x, y);
+    }
+
     @Override
     public int getChildPosition(View child) {
         return mListView.getPositionForView(child);
     }
 
+    @Override
+    public int getChildPositionAt(int index) {
+        return mListView.getFirstVisiblePosition() + index;
+    }
+
+    @Override
+    public int getItemCount() {
+        return mListView.getCount();
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        ListAdapter adapter = mListView.getAdapter();
+        return adapter != null && adapter.hasStableIds();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mListView.getItemIdAtPosition(position);
+    }
+
+    @Override
+    public int getPositionForItemId(long itemId) {
+        // Pending items are usually on screen, so look there first
+        int firstVisiblePosition = mListView.getFirstVisiblePosition();
+        int lastVisiblePosition = mListView.getLastVisiblePosition();
+        for (int position = firstVisiblePosition; position <= lastVisiblePosition; position++) {
+            if (mListView.getItemIdAtPosition(position) == itemId) return position;
+        }
+        int count = mListView.getCount();
+        for (int position = 0; position < count; position++) {
+            if (mListView.getItemIdAtPosition(position) == itemId) return position;
+        }
+        return ListView.INVALID_POSITION;
+    }
+
+    @Override
+    public ViewTreeObserver getViewTreeObserver() {
+        return mListView.getViewTreeObserver();
+    }
+
     @Override
     public void requestDisallowInterceptTouchEvent(boolean disallowIntercept) {
         mListView.requestDisallowInterceptTouchEvent(disallowIntercept);
     }
 
+    @Override
+    public void invalidate() {
+        mListView.invalidate();
+    }
+
     @Override
     public void onTouchEvent(MotionEvent e) {
         mListView.onTouchEvent(e);
@@ -0,0 +1,17 @@
+package com.hudomju.swipe.adapter;
+
+/**
+ * A {@link ViewAdapter} whose UI element can animate the removal of its items by itself, so the
+ * swipe-to-dismiss-undo pattern doesn't need to collapse the dismissed rows.
+ */
+public interface NotifyingViewAdapter extends ViewAdapter {
+
+    /**
+     * Notifies the UI element that the items at the given positions have been removed from the
+     * data set.
+     *
+     * @param reverseSortedPositions The removed positions, in descending order.
+     * @param onAnimationsFinished Run once the removal animations have finished.
+     */
+    void notifyItemsRemoved(int[] reverseSortedPositions, Runnable onAnimationsFinished);
+}
@@ -1,14 +1,18 @@
 package com.hudomju.swipe.adapter;
 
 import android.content.Context;
+import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.AbsListView;
 
-public class RecyclerViewAdapter implements ViewAdapter {
+public class RecyclerViewAdapter implements NotifyingViewAdapter, InterceptingViewAdapter,
+        RecyclingViewAdapter {
 
     private final RecyclerView mRecyclerView;
+    private RecyclerView.OnChildAttachStateChangeListener mAttachListener;
 
     public RecyclerViewAdapter(RecyclerView recyclerView) {
         mRecyclerView = recyclerView;
@@ -39,16 +43,83 @@ public class RecyclerViewAdapter implements ViewAdapter {
         return mRecyclerView.getChildAt(index);
     }
 
+    @Override
+    public int findChildIndexUnder(int x, int y) {
+        RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager && !mRecyclerView.isAnimating()) {
+            // Also covers GridLayoutManager. Children are ordered top to bottom as long as the
+            // layout is vertical, not reversed and no item is animating in or out
+            LinearLayoutManager linearLayoutManager = (LinearLayoutManager) layoutManager;
+            if (linearLayoutManager.getOrientation() == LinearLayoutManager.VERTICAL
+                    && !linearLayoutManager.getReverseLayout()) {
+                return ChildHitTester.findChildIndexUnder(mRecyclerView, x, y);
+            }
+        }
+        View child = mRecyclerView.findChildViewUnder(x, y);
+        return child == null ? -1 : mRecyclerView.indexOfChild(child);
+    }
+
     @Override
     public int getChildPosition(View child) {
         return mRecyclerView.getChildPosition(child);
     }
 
+    @Override
+    public int getChildPositionAt(int index) {
+        // The adapter position, like every position the listener hands to the adapter, and not
+        // the layout one, which is stale between a change notification and the next layout
+        return mRecyclerView.getChildViewHolder(mRecyclerView.getChildAt(index))
+                .getAdapterPosition();
+    }
+
+    @Override
+    public int getItemCount() {
+        RecyclerView.Adapter<?> adapter = mRecyclerView.getAdapter();
+        return adapter == null ? 0 : adapter.getItemCount();
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        RecyclerView.Adapter<?> adapter = mRecyclerView.getAdapter();
+        return adapter != null && adapter.hasStableIds();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        RecyclerView.Adapter<?> adapter = mRecyclerView.getAdapter();
+        return adapter == null ? RecyclerView.NO_ID : adapter.getItemId(position);
+    }
+
+    @Override
+    public int getPositionForItemId(long itemId) {
+        // Pending items are usually on screen, so look there first
+        RecyclerView.ViewHolder holder = mRecyclerView.findViewHolderForItemId(itemId);
+        if (holder != null && holder.getAdapterPosition() != RecyclerView.NO_POSITION) {
+            return holder.getAdapterPosition();
+        }
+        RecyclerView.Adapter<?> adapter = mRecyclerView.getAdapter();
+        int count = adapter == null ? 0 : adapter.getItemCount();
+        for (int position = 0; position < count; position++) {
+            if (adapter.getItemId(position) == itemId) return position;
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
+    @Override
+    public ViewTreeObserver getViewTreeObserver() {
+        return mRecyclerView.getViewTreeObserver();
+    }
+
     @Override
     public void requestDisallowInterceptTouchEvent(boolean disallowIntercept) {
         mRecyclerView.requestDisallowInterceptTouchEvent(disallowIntercept);
     }
 
+    @Override
+    public void invalidate() {
+        mRecyclerView.invalidate();
+    }
+
     @Override
     public void onTouchEvent(MotionEvent e) {
         mRecyclerView.onTouchEvent(e);
@@ -67,4 +138,96 @@ public class RecyclerViewAdapter implements ViewAdapter {
             }
         };
     }
+
+    @Override
+    public RecyclerView.OnItemTouchListener makeItemTouchListener(final View.OnTouchListener l) {
+        return new RecyclerView.OnItemTouchListener() {
+            @Override
+            public boolean onInterceptTouchEvent(RecyclerView recyclerView, MotionEvent e) {
+                return l.onTouch(recyclerView, e);
+            }
+
+            @Override
+            public void onTouchEvent(RecyclerView recyclerView, MotionEvent e) {
+                l.onTouch(recyclerView, e);
+            }
+
+            @Override
+            public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+                // A child claiming the gesture stops the events, the next down starts over
+            }
+        };
+    }
+
+    @Override
+    public RecyclerView.RecyclerListener makeRecyclerListener(final RowRecycleListener l) {
+        // Replaces the attach listener of an earlier call, like the returned RecyclerListener
+        // replaces the earlier one when set
+        if (mAttachListener != null) {
+            mRecyclerView.removeOnChildAttachStateChangeListener(mAttachListener);
+        }
+        mAttachListener = new RecyclerView.OnChildAttachStateChangeListener() {
+            @Override
+            public void onChildViewAttachedToWindow(View view) {
+                l.onRowAttached(view);
+            }
+
+            @Override
+            public void onChildViewDetachedFromWindow(View view) {
+            }
+        };
+        mRecyclerView.addOnChildAttachStateChangeListener(mAttachListener);
+        return new RecyclerView.RecyclerListener() {
+            @Override
+            public void onViewRecycled(RecyclerView.ViewHolder holder) {
+                l.onRowRecycled(holder.itemView);
+            }
+        };
+    }
+
+    @Override
+    public void notifyItemsRemoved(int[] reverseSortedPositions,
+                                   final Runnable onAnimationsFinished) {
+        RecyclerView.Adapter<?> adapter = mRecyclerView.getAdapter();
+        if (adapter == null || reverseSortedPositions.length == 0) {
+            onAnimationsFinished.run();
+            return;
+        }
+        // Consecutive positions are notified as a single range
+        int end = 0;
+        while (end < reverseSortedPositions.length) {
+            int start = end;
+            while (end + 1 < reverseSortedPositions.length
+                    && reverseSortedPositions[end + 1] == reverseSortedPositions[end] - 1) {
+                end++;
+            }
+            int count = end - start + 1;
+            if (count == 1) {
+                adapter.notifyItemRemoved(reverseSortedPositions[end]);
+            } else {
+                adapter.notifyItemRangeRemoved(reverseSortedPositions[end], count);
+            }
+            end++;
+        }
+        // The removal animations are scheduled by the next layout pass
+        final ViewTreeObserver observer = mRecyclerView.getViewTreeObserver();
+        observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                observer.removeOnPreDrawListener(this);
+                RecyclerView.ItemAnimator itemAnimator = mRecyclerView.getItemAnimator();
+                if (itemAnimator == null) {
+                    onAnimationsFinished.run();
+                } else {
+                    itemAnimator.isRunning(new RecyclerView.ItemAnimator.ItemAnimatorFinishedListener() {
+                        @Override
+                        public void onAnimationsFinished() {
+                            onAnimationsFinished.run();
+                        }
+                    });
+                }
+                return true;
+            }
+        });
+    }
 }
@@ -0,0 +1,35 @@
+package com.hudomju.swipe.adapter;
+
+import android.view.View;
+
+/**
+ * A {@link ViewAdapter} whose UI element recycles its rows to show other items, and can tell a
+ * listener when that happens so the listener lets go of the rows it holds on to.
+ */
+public interface RecyclingViewAdapter extends ViewAdapter {
+
+    /**
+     * Listener told about rows being recycled and rows showing up again.
+     */
+    interface RowRecycleListener {
+        /**
+         * Called when a row is recycled, before it is bound to another item.
+         */
+        void onRowRecycled(View row);
+
+        /**
+         * Called when a row is attached to the UI element, recycled or not.
+         */
+        void onRowAttached(View row);
+    }
+
+    /**
+     * Wraps a row recycle listener into the UI element's own recycler listener type. Listening to
+     * the rows being attached needs no registration. Calling it again replaces the listener of the
+     * previous call.
+     *
+     * @param listener The listener to be told about the rows.
+     * @return the recycler listener to be registered with the UI element.
+     */
+    Object makeRecyclerListener(RowRecycleListener listener);
+}
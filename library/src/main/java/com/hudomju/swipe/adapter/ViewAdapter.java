@@ -3,6 +3,7 @@ package com.hudomju.swipe.adapter;
 import android.content.Context;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.AbsListView;
 
 /**
@@ -15,8 +16,33 @@ public interface ViewAdapter {
     int getChildCount();
     void getLocationOnScreen(int[] locations);
     View getChildAt(int index);
+    /**
+     * Returns the index of the child under the given point, relative to this UI element, or -1.
+     * Implementations should not need to check every child.
+     */
+    int findChildIndexUnder(int x, int y);
     int getChildPosition(View position);
+    /**
+     * Returns the position in the data set of the child at the given index, without searching for
+     * the child, or -1 if the child no longer has one.
+     */
+    int getChildPositionAt(int index);
+    /**
+     * Returns the number of items in the data set, including the ones that are not on screen.
+     */
+    int getItemCount();
+    /**
+     * Whether the items of this UI element keep the same id when the data set changes.
+     */
+    boolean hasStableIds();
+    long getItemId(int position);
+    /**
+     * Returns the current position of the item with the given stable id, or -1 if it's gone.
+     */
+    int getPositionForItemId(long itemId);
+    ViewTreeObserver getViewTreeObserver();
     void requestDisallowInterceptTouchEvent(boolean disallowIntercept);
+    void invalidate();
     void onTouchEvent(MotionEvent e);
     Object makeScrollListener(AbsListView.OnScrollListener listener);
 }
@@ -23,6 +23,7 @@ import static android.widget.Toast.LENGTH_SHORT;
 public class ListViewActivity extends Activity {
 
     private static final int TIME_TO_AUTOMATICALLY_DISMISS_ITEM = 3000;
+    private static final int MAX_PENDING_DISMISSES = 5;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -55,6 +56,9 @@ public class ListViewActivity extends Activity {
                         });
 
         touchListener.setDismissDelay(TIME_TO_AUTOMATICALLY_DISMISS_ITEM);
+        touchListener.setMaxPendingDismisses(MAX_PENDING_DISMISSES);
+        touchListener.setCollapseMode(SwipeToDismissTouchListener.COLLAPSE_MODE_TRANSLATE);
+        touchListener.setCommitPolicy(SwipeToDismissTouchListener.COMMIT_POLICY_IDLE);
         listView.setOnTouchListener(touchListener);
         // Setting this scroll listener is required to ensure that during ListView scrolling,
         // we don't look for swipes.
@@ -62,8 +66,8 @@ public class ListViewActivity extends Activity {
         listView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
             @Override
             public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
-                if (touchListener.existPendingDismisses()) {
-                    touchListener.undoPendingDismiss();
+                if (touchListener.isPendingDismiss(position)) {
+                    touchListener.undoPendingDismiss(position);
                 } else {
                     Toast.makeText(ListViewActivity.this, "Position " + position, LENGTH_SHORT).show();
                 }
@@ -23,6 +23,7 @@ import static android.widget.Toast.LENGTH_SHORT;
 public class RecyclerViewActivity extends Activity {
 
     private static final int TIME_TO_AUTOMATICALLY_DISMISS_ITEM = 3000;
+    private static final int MAX_PENDING_DISMISSES = 5;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -56,10 +57,17 @@ public class RecyclerViewActivity extends Activity {
                             }
                         });
         touchListener.setDismissDelay(TIME_TO_AUTOMATICALLY_DISMISS_ITEM);
-        recyclerView.setOnTouchListener(touchListener);
+        touchListener.setMaxPendingDismisses(MAX_PENDING_DISMISSES);
+        touchListener.setCollapseMode(SwipeToDismissTouchListener.COLLAPSE_MODE_ITEM_ANIMATOR);
+        touchListener.setCommitPolicy(SwipeToDismissTouchListener.COMMIT_POLICY_IDLE);
+        recyclerView.addOnItemTouchListener(
+                (RecyclerView.OnItemTouchListener) touchListener.makeItemTouchListener());
         // Setting this scroll listener is required to ensure that during ListView scrolling,
         // we don't look for swipes.
         recyclerView.setOnScrollListener((RecyclerView.OnScrollListener) touchListener.makeScrollListener());
+        // Lets pending rows scroll away and be recycled, their undo state is shown again on return
+        recyclerView.setRecyclerListener(
+                (RecyclerView.RecyclerListener) touchListener.makeRecyclerListener());
         recyclerView.addOnItemTouchListener(new SwipeableItemClickListener(this,
                 new OnItemClickListener() {
                     @Override
@@ -67,7 +75,7 @@ public class RecyclerViewActivity extends Activity {
                         if (view.getId() == R.id.txt_delete) {
                             touchListener.processPendingDismisses();
                         } else if (view.getId() == R.id.txt_undo) {
-                            touchListener.undoPendingDismiss();
+                            touchListener.undoPendingDismiss(position);
                         } else { // R.id.txt_data
                             Toast.makeText(RecyclerViewActivity.this, "Position " + position, LENGTH_SHORT).show();
                         }
@@ -102,9 +110,9 @@ public class RecyclerViewActivity extends Activity {
             return mDataSet.size();
         }
 
+        /** The touch listener notifies the removal, see COLLAPSE_MODE_ITEM_ANIMATOR */
         public void remove(int position) {
             mDataSet.remove(position);
-            notifyItemRemoved(position);
         }
 
         static class MyViewHolder extends RecyclerView.ViewHolder {